@@ -22,11 +22,11 @@ package com.ancevt.d2d2.debug;
 import com.ancevt.d2d2.D2D2;
 import com.ancevt.d2d2.event.CommonEvent;
 import com.ancevt.d2d2.event.InputEvent;
-import com.ancevt.d2d2.event.StageEvent;
 import com.ancevt.d2d2.scene.BasicGroup;
 import com.ancevt.d2d2.scene.Color;
 import com.ancevt.d2d2.scene.Sprite;
 import com.ancevt.d2d2.scene.Stage;
+import com.ancevt.d2d2.scene.Updatable;
 import com.ancevt.d2d2.scene.shader.ShaderProgram;
 import com.ancevt.d2d2.time.Timer;
 import lombok.Getter;
@@ -59,7 +59,7 @@ public class StarletSpace extends BasicGroup {
             starlets.add(starlet);
         }
 
-        getStage().onTick(e -> tick()); // centralized tick
+        getStage().addUpdatable(this::tick); // centralized tick
     }
 
     private void tick() {
@@ -137,14 +137,17 @@ public class StarletSpace extends BasicGroup {
 
             getParent().addChild(plume);
 
-            getStage().addEventListener(plume, StageEvent.Tick.class, e -> {
-                plume.setAlpha(plume.getAlpha() - 0.01f);
-                plume.moveY(0.05f);
-                plume.rotate(1f);
-                plume.scaleY(0.99f);
-                if (plume.getAlpha() <= 0.025f) {
-                    plume.removeFromParent();
-                    getStage().removeEventListener(plume, StageEvent.Tick.class);
+            getStage().addUpdatable(new Updatable() {
+                @Override
+                public void update() {
+                    plume.setAlpha(plume.getAlpha() - 0.01f);
+                    plume.moveY(0.05f);
+                    plume.rotate(1f);
+                    plume.scaleY(0.99f);
+                    if (plume.getAlpha() <= 0.025f) {
+                        plume.removeFromParent();
+                        getStage().removeUpdatable(this);
+                    }
                 }
             });
 
@@ -25,9 +25,16 @@ import lombok.Getter;
 
 public abstract class InputEvent extends Event {
 
+    private static final float[] NO_SAMPLES = new float[0];
+
     @EventPooled
     @Getter
     public static final class MouseDown extends InputEvent {
+        /**
+         * Id of the pointer that caused the event: 0 for the mouse, the backend's id for touches.
+         * Every pointer event carries one.
+         */
+        private int pointer;
         private float x;
         private float y;
         private int button;
@@ -47,7 +54,21 @@ public abstract class InputEvent extends Event {
                                        boolean alt,
                                        boolean control,
                                        boolean shift) {
+            return create(0, x, y, button, left, right, middle, alt, control, shift);
+        }
+
+        public static MouseDown create(int pointer,
+                                       float x,
+                                       float y,
+                                       int button,
+                                       boolean left,
+                                       boolean right,
+                                       boolean middle,
+                                       boolean alt,
+                                       boolean control,
+                                       boolean shift) {
             MouseDown e = EventPool.obtain(MouseDown.class);
+            e.pointer = pointer;
             e.x = x;
             e.y = y;
             e.button = button;
@@ -64,6 +85,7 @@ public abstract class InputEvent extends Event {
     @EventPooled
     @Getter
     public static final class MouseUp extends InputEvent {
+        private int pointer;
         private float x;
         private float y;
         private int button;
@@ -85,7 +107,22 @@ public abstract class InputEvent extends Event {
                                      boolean alt,
                                      boolean control,
                                      boolean shift) {
+            return create(0, x, y, button, left, right, middle, onArea, alt, control, shift);
+        }
+
+        public static MouseUp create(int pointer,
+                                     float x,
+                                     float y,
+                                     int button,
+                                     boolean left,
+                                     boolean right,
+                                     boolean middle,
+                                     boolean onArea,
+                                     boolean alt,
+                                     boolean control,
+                                     boolean shift) {
             MouseUp e = EventPool.obtain(MouseUp.class);
+            e.pointer = pointer;
             e.x = x;
             e.y = y;
             e.button = button;
@@ -103,12 +140,19 @@ public abstract class InputEvent extends Event {
     @EventPooled
     @Getter
     public static final class MouseMove extends InputEvent {
+        private int pointer;
         private float x;
         private float y;
         private boolean onArea;
         private boolean alt;
         private boolean control;
         private boolean shift;
+        /**
+         * Raw pointer positions merged into this event when input coalescing is on: the first
+         * {@code sampleCount} {@code x, y} pairs in stage coordinates, valid until the next frame.
+         */
+        private float[] samples;
+        private int sampleCount;
 
         public static MouseMove create(float x,
                                        float y,
@@ -116,13 +160,28 @@ public abstract class InputEvent extends Event {
                                        boolean alt,
                                        boolean control,
                                        boolean shift) {
+            return create(0, x, y, onArea, alt, control, shift, NO_SAMPLES, 0);
+        }
+
+        public static MouseMove create(int pointer,
+                                       float x,
+                                       float y,
+                                       boolean onArea,
+                                       boolean alt,
+                                       boolean control,
+                                       boolean shift,
+                                       float[] samples,
+                                       int sampleCount) {
             MouseMove e = EventPool.obtain(MouseMove.class);
+            e.pointer = pointer;
             e.x = x;
             e.y = y;
             e.onArea = onArea;
             e.alt = alt;
             e.control = control;
             e.shift = shift;
+            e.samples = samples;
+            e.sampleCount = sampleCount;
             return e;
         }
     }
@@ -253,6 +312,7 @@ public abstract class InputEvent extends Event {
     @EventPooled
     @Getter
     public static final class MouseHover extends InputEvent {
+        private int pointer;
         private float x;
         private float y;
         private boolean alt;
@@ -264,7 +324,17 @@ public abstract class InputEvent extends Event {
                                         boolean alt,
                                         boolean control,
                                         boolean shift) {
+            return create(0, x, y, alt, control, shift);
+        }
+
+        public static MouseHover create(int pointer,
+                                        float x,
+                                        float y,
+                                        boolean alt,
+                                        boolean control,
+                                        boolean shift) {
             MouseHover e = EventPool.obtain(MouseHover.class);
+            e.pointer = pointer;
             e.x = x;
             e.y = y;
             e.alt = alt;
@@ -277,6 +347,7 @@ public abstract class InputEvent extends Event {
     @EventPooled
     @Getter
     public static final class MouseOut extends InputEvent {
+        private int pointer;
         private float x;
         private float y;
         private boolean alt;
@@ -288,7 +359,17 @@ public abstract class InputEvent extends Event {
                                       boolean alt,
                                       boolean control,
                                       boolean shift) {
+            return create(0, x, y, alt, control, shift);
+        }
+
+        public static MouseOut create(int pointer,
+                                      float x,
+                                      float y,
+                                      boolean alt,
+                                      boolean control,
+                                      boolean shift) {
             MouseOut e = EventPool.obtain(MouseOut.class);
+            e.pointer = pointer;
             e.x = x;
             e.y = y;
             e.alt = alt;
@@ -301,6 +382,7 @@ public abstract class InputEvent extends Event {
     @EventPooled
     @Getter
     public static final class MouseDrag extends InputEvent {
+        private int pointer;
         private float x;
         private float y;
         private int button;
@@ -310,6 +392,12 @@ public abstract class InputEvent extends Event {
         private boolean alt;
         private boolean control;
         private boolean shift;
+        /**
+         * Raw pointer positions merged into this event when input coalescing is on: the first
+         * {@code sampleCount} {@code x, y} pairs in stage coordinates, valid until the next frame.
+         */
+        private float[] samples;
+        private int sampleCount;
 
         public static MouseDrag create(float x,
                                        float y,
@@ -320,7 +408,25 @@ public abstract class InputEvent extends Event {
                                        boolean alt,
                                        boolean control,
                                        boolean shift) {
+            return create(0, x, y, button, left, right, middle, alt, control, shift, NO_SAMPLES, 0);
+        }
+
+        public static MouseDrag create(int pointer,
+                                       float x,
+                                       float y,
+                                       int button,
+                                       boolean left,
+                                       boolean right,
+                                       boolean middle,
+                                       boolean alt,
+                                       boolean control,
+                                       boolean shift,
+                                       float[] samples,
+                                       int sampleCount) {
             MouseDrag e = EventPool.obtain(MouseDrag.class);
+            e.pointer = pointer;
+            e.samples = samples;
+            e.sampleCount = sampleCount;
             e.x = x;
             e.y = y;
             e.button = button;
@@ -18,9 +18,21 @@
 
 package com.ancevt.d2d2.event.core;
 
-public abstract class Event {
+public abstract class Event implements AutoCloseable {
     private EventDispatcher target;
 
+    // Pool bookkeeping, see EventPool
+    boolean pooled;
+    boolean inUse;
+    int generation;
+    boolean frameScoped;
+    int retainCount;
+
+    EventPhase phase = EventPhase.NONE;
+    private EventDispatcher currentTarget;
+    private boolean propagationStopped;
+    private boolean immediatePropagationStopped;
+
     void setTarget(EventDispatcher target) {
         this.target = target;
     }
@@ -29,9 +41,64 @@ public abstract class Event {
         return target;
     }
 
+    /**
+     * Returns the dispatcher whose listeners are running, which differs from {@link #target()}
+     * while the event is captured or bubbles.
+     */
+    public EventDispatcher currentTarget() {
+        return currentTarget;
+    }
+
+    void setCurrentTarget(EventDispatcher currentTarget) {
+        this.currentTarget = currentTarget;
+    }
+
+    public EventPhase getPhase() {
+        return phase;
+    }
+
+    /**
+     * Keeps the event from reaching further dispatchers on its propagation path; the remaining
+     * listeners of the current dispatcher still run.
+     */
+    public void stopPropagation() {
+        propagationStopped = true;
+    }
+
+    /**
+     * Like {@link #stopPropagation()}, but also skips the remaining listeners of the current dispatcher.
+     */
+    public void stopImmediatePropagation() {
+        propagationStopped = true;
+        immediatePropagationStopped = true;
+    }
+
+    public boolean isPropagationStopped() {
+        return propagationStopped;
+    }
+
+    public boolean isImmediatePropagationStopped() {
+        return immediatePropagationStopped;
+    }
+
+    void resetPropagation() {
+        phase = EventPhase.NONE;
+        currentTarget = null;
+        propagationStopped = false;
+        immediatePropagationStopped = false;
+    }
+
     @SuppressWarnings("unchecked")
     public <T> T targetAs(Class<T> type) {
         if (type.isInstance(target)) return (T) target;
         throw new ClassCastException("Expected target of type " + type.getName());
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns this event to its pool ahead of the end of the frame; see {@link EventPool#release(Event)}.
+     */
+    @Override
+    public void close() {
+        EventPool.release(this);
+    }
+}
@@ -28,6 +28,14 @@ public interface EventDispatcher {
 
     <T extends Event> void removeEventListener(Object key, Class<T> eventType);
 
+    /**
+     * Registers a listener for the capture phase: it runs when an event propagating to one of
+     * this dispatcher's descendants passes by on its way down (see {@link EventPropagation}).
+     */
+    <T extends Event> void addCaptureListener(Class<T> eventType, EventListener<T> listener);
+
+    <T extends Event> void removeCaptureListener(Class<T> eventType, EventListener<T> listener);
+
     void removeAllEventListeners();
 
     void removeAllEventListenersByKey(Object key);
@@ -19,18 +19,34 @@
 package com.ancevt.d2d2.event.core;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class EventDispatcherImpl implements EventDispatcher {
 
-    private final Map<Class<? extends Event>, List<EventListener<? extends Event>>> listeners = new HashMap<>();
+    private static final EventListener<?>[] NO_LISTENERS = new EventListener<?>[0];
+
+    private final Map<Class<? extends Event>, List<EventListener<? extends Event>>> listeners = new LinkedHashMap<>();
     private final Map<Object, List<ListenerBinding<? extends Event>>> bindings = new HashMap<>();
 
+    // Listeners per concrete event class, supertype listeners included. The arrays are never
+    // modified once published, so a dispatch keeps iterating the array it started with even if
+    // listeners are added or removed meanwhile; the cache is rebuilt lazily after such changes.
+    private final Map<Class<?>, EventListener<?>[]> resolvedListeners = new HashMap<>();
+
+    // Capture-phase listeners, kept apart so that ordinary dispatch never looks at them
+    private final Map<Class<? extends Event>, List<EventListener<? extends Event>>> captureListeners = new LinkedHashMap<>();
+    private final Map<Class<?>, EventListener<?>[]> resolvedCaptureListeners = new HashMap<>();
+
     @Override
     public <T extends Event> void addEventListener(Class<T> eventType, EventListener<T> listener) {
         listeners.computeIfAbsent(eventType, k -> new ArrayList<>()).add(listener);
+        resolvedListeners.clear();
     }
 
     @Override
@@ -40,14 +56,31 @@ public class EventDispatcherImpl implements EventDispatcher {
                 .add(new ListenerBinding<>(eventType, listener));
     }
 
+    @Override
+    public <T extends Event> void addCaptureListener(Class<T> eventType, EventListener<T> listener) {
+        captureListeners.computeIfAbsent(eventType, k -> new ArrayList<>()).add(listener);
+        resolvedCaptureListeners.clear();
+    }
+
+    @Override
+    public <T extends Event> void removeCaptureListener(Class<T> eventType, EventListener<T> listener) {
+        List<EventListener<? extends Event>> eventListeners = captureListeners.get(eventType);
+        if (eventListeners != null && eventListeners.remove(listener)) {
+            if (eventListeners.isEmpty()) {
+                captureListeners.remove(eventType);
+            }
+            resolvedCaptureListeners.clear();
+        }
+    }
+
     @Override
     public <T extends Event> void removeEventListener(Class<T> eventType, EventListener<T> listener) {
         List<EventListener<? extends Event>> eventListeners = listeners.get(eventType);
-        if (eventListeners != null) {
-            eventListeners.remove(listener);
+        if (eventListeners != null && eventListeners.remove(listener)) {
             if (eventListeners.isEmpty()) {
                 listeners.remove(eventType);
             }
+            resolvedListeners.clear();
         }
     }
 
@@ -78,6 +111,9 @@ public class EventDispatcherImpl implements EventDispatcher {
     public void removeAllEventListeners() {
         listeners.clear();
         bindings.clear();
+        resolvedListeners.clear();
+        captureListeners.clear();
+        resolvedCaptureListeners.clear();
     }
 
     @Override
@@ -90,31 +126,85 @@ public class EventDispatcherImpl implements EventDispatcher {
         }
     }
 
+    /**
+     * Removes the listeners bound to any of the keys with one pass over each affected listener
+     * list, rather than one list search per listener.
+     */
+    void removeAllEventListenersByKeys(List<?> keys) {
+        Map<Class<? extends Event>, Set<EventListener<?>>> removed = new HashMap<>();
+        for (Object key : keys) {
+            List<ListenerBinding<? extends Event>> keyBindings = bindings.remove(key);
+            if (keyBindings == null) continue;
+            for (ListenerBinding<? extends Event> binding : keyBindings) {
+                removed.computeIfAbsent(binding.eventType, t -> Collections.newSetFromMap(new IdentityHashMap<>()))
+                        .add(binding.listener);
+            }
+        }
+        if (removed.isEmpty()) return;
+
+        removed.forEach((eventType, eventListeners) -> {
+            List<EventListener<? extends Event>> typeListeners = listeners.get(eventType);
+            if (typeListeners != null && typeListeners.removeIf(eventListeners::contains) && typeListeners.isEmpty()) {
+                listeners.remove(eventType);
+            }
+        });
+        resolvedListeners.clear();
+    }
+
     @Override
     public <T extends Event> void dispatchEvent(T event) {
         if (event.target() == null) {
             event.setTarget(this);
         }
 
-        List<EventListener<? extends Event>> exactListeners = listeners.get(event.getClass());
-        if (exactListeners != null) {
-            for (EventListener<? extends Event> listener : new ArrayList<>(exactListeners)) {
+        boolean capture = event.getPhase() == EventPhase.CAPTURE;
+        Map<Class<? extends Event>, List<EventListener<? extends Event>>> source = capture ? captureListeners : listeners;
+        if (source.isEmpty()) return;
+
+        Map<Class<?>, EventListener<?>[]> cache = capture ? resolvedCaptureListeners : resolvedListeners;
+        EventListener<?>[] eventListeners = cache.get(event.getClass());
+        if (eventListeners == null) {
+            eventListeners = resolveListeners(source, cache, event.getClass());
+        }
+
+        EventDispatcher previousTarget = event.currentTarget();
+        event.setCurrentTarget(this);
+        try {
+            for (EventListener<?> listener : eventListeners) {
                 @SuppressWarnings("unchecked")
                 EventListener<T> casted = (EventListener<T>) listener;
                 casted.onEvent(event);
+                if (event.isImmediatePropagationStopped()) break;
             }
+        } finally {
+            event.setCurrentTarget(previousTarget);
         }
+    }
+
+    /**
+     * Collects the listeners registered for the event class itself, followed by those registered
+     * for its supertypes, and caches the result until the listeners change.
+     */
+    private static EventListener<?>[] resolveListeners(Map<Class<? extends Event>, List<EventListener<? extends Event>>> listeners,
+                                                      Map<Class<?>, EventListener<?>[]> cache,
+                                                      Class<? extends Event> eventClass) {
+        List<EventListener<? extends Event>> result = new ArrayList<>();
 
-        for (Map.Entry<Class<? extends Event>, List<EventListener<? extends Event>>> entry : new HashMap<>(listeners).entrySet()) {
+        List<EventListener<? extends Event>> exactListeners = listeners.get(eventClass);
+        if (exactListeners != null) {
+            result.addAll(exactListeners);
+        }
+
+        for (Map.Entry<Class<? extends Event>, List<EventListener<? extends Event>>> entry : listeners.entrySet()) {
             Class<? extends Event> type = entry.getKey();
-            if (type.isInstance(event) && !type.equals(event.getClass())) {
-                for (EventListener<? extends Event> listener : new ArrayList<>(entry.getValue())) {
-                    @SuppressWarnings("unchecked")
-                    EventListener<T> casted = (EventListener<T>) listener;
-                    casted.onEvent(event);
-                }
+            if (type.isAssignableFrom(eventClass) && !type.equals(eventClass)) {
+                result.addAll(entry.getValue());
             }
         }
+
+        EventListener<?>[] resolved = result.isEmpty() ? NO_LISTENERS : result.toArray(NO_LISTENERS);
+        cache.put(eventClass, resolved);
+        return resolved;
     }
 
     private static class ListenerBinding<T extends Event> {
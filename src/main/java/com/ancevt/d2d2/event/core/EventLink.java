@@ -1,5 +1,7 @@
 package com.ancevt.d2d2.event.core;
 
+import com.ancevt.d2d2.D2D2;
+import com.ancevt.d2d2.event.StageEvent;
 import com.ancevt.d2d2.time.Timer;
 
 import java.lang.ref.WeakReference;
@@ -21,6 +23,27 @@ public class EventLink<T extends Event> {
     private String tag;
     private Timer timeoutTimer;
 
+    ListenerScope scope;
+    int scopeIndex;
+
+    private Function<? super T, ?> distinctKey;
+    private Object lastKey;
+    private boolean hasLastKey;
+
+    private int throttleFrames;
+    private long lastDeliveryFrame = -1;
+
+    // Deferred delivery, flushed when the stage dispatches PostFrame. Held events are retained
+    // from the pool until then, so they stay valid past the end of the frame they arrived in
+    private Deferral deferral = Deferral.NONE;
+    private boolean frameHookInstalled;
+    private long debounceNanos;
+    private long lastArrivalNanos;
+    private T pending;
+    private List<T> buffer;
+    private List<T> bufferView;
+    private Consumer<? super List<T>> batchListener;
+
     public EventLink(EventDispatcher dispatcher,
                      Class<T> eventType,
                      EventListener<T> listener) {
@@ -38,6 +61,37 @@ public class EventLink<T extends Event> {
             timeoutTimer = null;
         }
 
+        if (distinctKey != null) {
+            Object key = distinctKey.apply(event);
+            if (hasLastKey && Objects.equals(key, lastKey)) return;
+            lastKey = key;
+            hasLastKey = true;
+        }
+
+        if (throttleFrames > 0) {
+            long frame = D2D2.getStage().getFrameNumber();
+            if (lastDeliveryFrame >= 0 && frame - lastDeliveryFrame < throttleFrames) return;
+            lastDeliveryFrame = frame;
+        }
+
+        switch (deferral) {
+            case NONE -> deliver(event);
+            case SAMPLE, DEBOUNCE -> {
+                if (pending != event) {
+                    if (pending != null) EventPool.release(pending);
+                    EventPool.retain(event);
+                    pending = event;
+                }
+                lastArrivalNanos = System.nanoTime();
+            }
+            case BUFFER -> {
+                EventPool.retain(event);
+                buffer.add(event);
+            }
+        }
+    }
+
+    private void deliver(T event) {
         if (remaining > 0) remaining--;
 
         try {
@@ -49,6 +103,61 @@ public class EventLink<T extends Event> {
         if (remaining == 0) unregister();
     }
 
+    private void flushFrame(StageEvent.PostFrame event) {
+        switch (deferral) {
+            case SAMPLE -> deliverPending();
+            case DEBOUNCE -> {
+                if (pending != null && System.nanoTime() - lastArrivalNanos >= debounceNanos) deliverPending();
+            }
+            case BUFFER -> {
+                if (buffer.isEmpty()) return;
+                try {
+                    batchListener.accept(bufferView);
+                } catch (Throwable ex) {
+                    errorHandler.accept(ex);
+                } finally {
+                    releaseBuffer();
+                }
+            }
+        }
+    }
+
+    private void deliverPending() {
+        T event = pending;
+        if (event == null) return;
+        pending = null;
+        try {
+            deliver(event);
+        } finally {
+            EventPool.release(event);
+        }
+    }
+
+    private void releaseBuffer() {
+        for (int i = 0; i < buffer.size(); i++) {
+            EventPool.release(buffer.get(i));
+        }
+        buffer.clear();
+    }
+
+    private void releaseDeferred() {
+        if (pending != null) {
+            EventPool.release(pending);
+            pending = null;
+        }
+        if (buffer != null) releaseBuffer();
+    }
+
+    private EventLink<T> defer(Deferral deferral) {
+        releaseDeferred();
+        this.deferral = deferral;
+        if (!frameHookInstalled) {
+            D2D2.getStage().addEventListener(this, StageEvent.PostFrame.class, this::flushFrame);
+            frameHookInstalled = true;
+        }
+        return this;
+    }
+
     public EventLink<T> setPaused(boolean paused) {
         this.paused = paused;
         return this;
@@ -109,6 +218,56 @@ public class EventLink<T extends Event> {
         return this;
     }
 
+    /**
+     * Delivers an event only if at least {@code frames} frames have passed since the previous
+     * delivery; events in between are dropped. {@code 1} means at most once per frame.
+     */
+    public EventLink<T> throttleFrames(int frames) {
+        if (frames < 1) throw new IllegalArgumentException("frames >= 1");
+        this.throttleFrames = frames;
+        return this;
+    }
+
+    /**
+     * Drops events whose key equals the key of the previous event that got through.
+     */
+    public EventLink<T> distinctUntilChanged(Function<? super T, ?> keyFn) {
+        this.distinctKey = Objects.requireNonNull(keyFn, "keyFn");
+        this.hasLastKey = false;
+        return this;
+    }
+
+    /**
+     * Holds the latest event and delivers it at the end of the frame, so the listener runs at
+     * most once per frame no matter how many events arrived.
+     */
+    public EventLink<T> sampleEveryFrame() {
+        return defer(Deferral.SAMPLE);
+    }
+
+    /**
+     * Delivers the latest event once no new one has arrived for the given time. The quiet period
+     * is checked at the end of each frame.
+     */
+    public EventLink<T> debounceMillis(long millis) {
+        if (millis < 0) throw new IllegalArgumentException("millis >= 0");
+        this.debounceNanos = millis * 1_000_000L;
+        return defer(Deferral.DEBOUNCE);
+    }
+
+    /**
+     * Collects the events of a frame and hands them to {@code batchListener} at its end, instead
+     * of calling the link's listener. The list is reused and only valid during the call.
+     */
+    public EventLink<T> bufferPerFrame(Consumer<? super List<T>> batchListener) {
+        this.batchListener = Objects.requireNonNull(batchListener, "batchListener");
+        if (buffer == null) {
+            buffer = new ArrayList<>();
+            bufferView = Collections.unmodifiableList(buffer);
+        }
+        return defer(Deferral.BUFFER);
+    }
+
     public EventLink<T> withTimeout(long timeoutMillis, Runnable onTimeout) {
         Objects.requireNonNull(onTimeout, "onTimeout");
 
@@ -130,7 +289,13 @@ public class EventLink<T extends Event> {
     }
 
     public void unregister() {
+        if (scope != null) scope.forget(this);
         dispatcher.removeEventListener(this, eventType);
+        if (frameHookInstalled) {
+            D2D2.getStage().removeEventListener(this, StageEvent.PostFrame.class);
+            frameHookInstalled = false;
+            releaseDeferred();
+        }
         if (tag != null) {
             TAG_REGISTRY.computeIfPresent(tag, (t, set) -> {
                 set.removeIf(ref -> ref.get() == this);
@@ -143,6 +308,10 @@ public class EventLink<T extends Event> {
         }
     }
 
+    public EventDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
     public Class<T> getEventType() {
         return eventType;
     }
@@ -154,4 +323,11 @@ public class EventLink<T extends Event> {
     public boolean isRegistered() {
         return !paused && remaining != 0;
     }
+
+    private enum Deferral {
+        NONE,
+        SAMPLE,
+        DEBOUNCE,
+        BUFFER
+    }
 }
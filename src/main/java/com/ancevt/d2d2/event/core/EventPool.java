@@ -18,37 +18,218 @@
 
 package com.ancevt.d2d2.event.core;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Per-thread pools of {@link EventPooled} events.
+ * <p>
+ * Every {@link #obtain(Class)} returns an instance that is not in use, so a listener that
+ * dispatches a nested event of the type it is handling gets a fresh instance and the outer
+ * event stays intact. On a thread marked with {@link #markFrameThread()}, events obtained this
+ * way are frame-scoped: they go back to the pool when the thread calls
+ * {@link #releaseFrameEvents()}, which the stage does after each {@code PostFrame}. On any other
+ * thread {@code obtain} behaves like {@link #acquire(Class)}. Code that keeps an event longer
+ * uses {@link #acquire(Class)} and hands the event back with {@link #release(Event)} or
+ * try-with-resources. Releasing early is always allowed, and releasing twice is harmless.
+ * Code handed an event it wants to keep calls {@link #retain(Event)} and releases it later.
+ * <p>
+ * Free lists are bounded per type; events released to a full list are left to the garbage
+ * collector.
+ */
 public class EventPool {
 
-    private static final Map<Class<? extends Event>, Event> pool = new HashMap<>();
+    static final int MAX_FREE_PER_TYPE = 32;
+    static final int MAX_FRAME_EVENTS = 4096;
+
+    private static final ThreadLocal<ThreadPool> pools = ThreadLocal.withInitial(ThreadPool::new);
+
+    private static final ClassValue<Boolean> pooledTypes = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return type.isAnnotationPresent(EventPooled.class);
+        }
+    };
 
-    @SuppressWarnings("unchecked")
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder discards = new LongAdder();
+
+    /**
+     * Returns an event of the given type, taken from the current thread's pool. The event is
+     * frame-scoped on a frame thread and owned by the caller elsewhere. Types without
+     * {@link EventPooled} are simply instantiated.
+     */
     public static <T extends Event> T obtain(Class<T> eventType) {
-        if (!eventType.isAnnotationPresent(EventPooled.class)) {
-            try {
-                return eventType.getDeclaredConstructor().newInstance();
-            } catch (Exception e) {
-                throw new RuntimeException("Can't create non-pooled event: " + eventType, e);
-            }
+        T event = acquire(eventType);
+        if (event.pooled) {
+            ThreadPool pool = pools.get();
+            if (pool.frameThread) pool.trackFrameEvent(event);
         }
+        return event;
+    }
 
-        Event pooledEvent = pool.get(eventType);
-        if (pooledEvent == null) {
-            try {
-                pooledEvent = eventType.getDeclaredConstructor().newInstance();
-                pool.put(eventType, pooledEvent);
-            } catch (Exception e) {
-                throw new RuntimeException("Can't create pooled event: " + eventType, e);
-            }
+    /**
+     * Marks the current thread as one that runs frames and calls {@link #releaseFrameEvents()}
+     * after each of them, so that {@link #obtain(Class)} hands out frame-scoped events on it.
+     */
+    public static void markFrameThread() {
+        pools.get().frameThread = true;
+    }
+
+    /**
+     * Returns an event owned by the caller until it is passed to {@link #release(Event)} or
+     * closed. Types without {@link EventPooled} are simply instantiated.
+     */
+    public static <T extends Event> T acquire(Class<T> eventType) {
+        if (!pooledTypes.get(eventType)) return newInstance(eventType, "non-pooled");
+
+        ThreadPool pool = pools.get();
+        T event = pool.poll(eventType);
+        if (event != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            event = newInstance(eventType, "pooled");
+            event.pooled = true;
+        }
+
+        event.inUse = true;
+        event.frameScoped = false;
+        event.retainCount = 0;
+        event.generation++;
+        event.resetPropagation();
+        return event;
+    }
+
+    /**
+     * Takes a share of ownership of an event, so that it outlives its frame or its owner's
+     * {@link #release(Event)}. Each retain is matched by a release; the event goes back to the
+     * pool with the last one.
+     */
+    public static void retain(Event event) {
+        if (!event.pooled || !event.inUse) return;
+        if (event.frameScoped) {
+            // Take over the frame's share: frame tracking skips events whose generation changed
+            event.frameScoped = false;
+            event.generation++;
+        } else {
+            event.retainCount++;
+        }
+    }
+
+    /**
+     * Returns the event to the current thread's pool. Does nothing for events that are not pooled
+     * or already released.
+     */
+    public static void release(Event event) {
+        if (!event.pooled || !event.inUse) return;
+        if (event.retainCount > 0) {
+            event.retainCount--;
+            return;
         }
 
-        return (T) pooledEvent;
+        event.inUse = false;
+        event.setTarget(null);
+        if (!pools.get().offer(event)) discards.increment();
+    }
+
+    /**
+     * Releases all events obtained by the current thread with {@link #obtain(Class)} since the
+     * previous call, except those already released.
+     */
+    public static void releaseFrameEvents() {
+        pools.get().releaseFrameEvents();
+    }
+
+    public static long getHitCount() {
+        return hits.sum();
     }
 
+    public static long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Number of released events dropped because the free list of their type was full.
+     */
+    public static long getDiscardCount() {
+        return discards.sum();
+    }
+
+    public static void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        discards.reset();
+    }
+
+    /**
+     * Empties the current thread's pool.
+     */
     public static void clear() {
-        pool.clear();
+        pools.remove();
+    }
+
+    private static <T> T newInstance(Class<T> eventType, String kind) {
+        try {
+            return eventType.getDeclaredConstructor().newInstance();
+        } catch (Exception e) {
+            throw new RuntimeException("Can't create " + kind + " event: " + eventType, e);
+        }
+    }
+
+    private static final class ThreadPool {
+        private final Map<Class<?>, FreeList> freeLists = new HashMap<>();
+        private boolean frameThread;
+
+        // Frame-scoped events with the generation they were obtained in, so that an event
+        // released early and handed out again is not released a second time
+        private Event[] frameEvents = new Event[64];
+        private int[] frameGenerations = new int[64];
+        private int frameEventCount;
+
+        @SuppressWarnings("unchecked")
+        <T extends Event> T poll(Class<T> eventType) {
+            FreeList list = freeLists.get(eventType);
+            if (list == null || list.size == 0) return null;
+            Event event = list.events[--list.size];
+            list.events[list.size] = null;
+            return (T) event;
+        }
+
+        boolean offer(Event event) {
+            FreeList list = freeLists.computeIfAbsent(event.getClass(), k -> new FreeList());
+            if (list.size == MAX_FREE_PER_TYPE) return false;
+            list.events[list.size++] = event;
+            return true;
+        }
+
+        void trackFrameEvent(Event event) {
+            if (frameEventCount == MAX_FRAME_EVENTS) return;
+            if (frameEventCount == frameEvents.length) {
+                frameEvents = Arrays.copyOf(frameEvents, frameEventCount * 2);
+                frameGenerations = Arrays.copyOf(frameGenerations, frameEventCount * 2);
+            }
+            event.frameScoped = true;
+            frameEvents[frameEventCount] = event;
+            frameGenerations[frameEventCount] = event.generation;
+            frameEventCount++;
+        }
+
+        void releaseFrameEvents() {
+            for (int i = 0; i < frameEventCount; i++) {
+                Event event = frameEvents[i];
+                frameEvents[i] = null;
+                if (event.generation == frameGenerations[i]) release(event);
+            }
+            frameEventCount = 0;
+        }
+    }
+
+    private static final class FreeList {
+        final Event[] events = new Event[MAX_FREE_PER_TYPE];
+        int size;
     }
 }
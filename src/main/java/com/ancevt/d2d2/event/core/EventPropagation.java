@@ -0,0 +1,63 @@
+/**
+ * Copyright (C) 2025 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ancevt.d2d2.event.core;
+
+/**
+ * Dispatches an event along a precomputed path in capture, target and bubble order.
+ */
+public final class EventPropagation {
+
+    private EventPropagation() {
+    }
+
+    /**
+     * Propagates the event along {@code path[offset .. offset + length - 1]}, where
+     * {@code path[offset]} is the target and the following entries are its ancestors, nearest
+     * first. Capture listeners of the ancestors run from the outermost one down, then the
+     * target's listeners, then the ancestors' regular listeners from the nearest one up.
+     * {@link Event#stopPropagation()} ends the trip after the current dispatcher,
+     * {@link Event#stopImmediatePropagation()} right away.
+     */
+    public static void dispatch(Event event, EventDispatcher[] path, int offset, int length) {
+        if (length <= 0) return;
+
+        event.resetPropagation();
+        if (event.target() == null) event.setTarget(path[offset]);
+
+        try {
+            event.phase = EventPhase.CAPTURE;
+            for (int i = offset + length - 1; i > offset; i--) {
+                path[i].dispatchEvent(event);
+                if (event.isPropagationStopped()) return;
+            }
+
+            event.phase = EventPhase.AT_TARGET;
+            path[offset].dispatchEvent(event);
+            if (event.isPropagationStopped()) return;
+
+            event.phase = EventPhase.BUBBLE;
+            for (int i = offset + 1; i < offset + length; i++) {
+                path[i].dispatchEvent(event);
+                if (event.isPropagationStopped()) return;
+            }
+        } finally {
+            event.phase = EventPhase.NONE;
+        }
+    }
+}
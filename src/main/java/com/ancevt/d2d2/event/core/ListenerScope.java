@@ -0,0 +1,120 @@
+/**
+ * Copyright (C) 2025 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ancevt.d2d2.event.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Owns the {@link EventLink}s created through it, on any number of dispatchers, and unregisters
+ * them all with {@link #close()}. Links that unregister on their own (e.g. after
+ * {@link EventLink#once()}) leave the scope in constant time, so long-lived scopes do not grow,
+ * and closing costs one pass over the listener lists of each dispatcher involved.
+ * <p>
+ * A closed scope cannot be reused.
+ */
+public final class ListenerScope implements AutoCloseable {
+
+    private EventLink<?>[] links = new EventLink<?>[8];
+    private int size;
+    private boolean closed;
+
+    /**
+     * Registers the listener on the dispatcher and ties the resulting link to this scope.
+     */
+    public <T extends Event> EventLink<T> on(EventDispatcher dispatcher, Class<T> eventType, EventListener<T> listener) {
+        checkOpen();
+        return adopt(new EventLink<>(dispatcher, eventType, listener));
+    }
+
+    /**
+     * Ties an existing link to this scope, taking it from the scope that owned it before, if any.
+     */
+    public <T extends Event> EventLink<T> adopt(EventLink<T> link) {
+        checkOpen();
+        if (link.scope == this) return link;
+        if (link.scope != null) link.scope.forget(link);
+
+        if (size == links.length) links = Arrays.copyOf(links, size * 2);
+        link.scope = this;
+        link.scopeIndex = size;
+        links[size++] = link;
+        return link;
+    }
+
+    /**
+     * Number of links currently owned by the scope.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Unregisters every owned link. Does nothing if the scope is already closed.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+
+        EventLink<?>[] owned = links;
+        int count = size;
+        links = null;
+        size = 0;
+
+        // Detach the links from dispatchers in bulk first, so each of their listener lists is
+        // filtered once; unregister() is then left with the per-link cleanup only
+        Map<EventDispatcherImpl, List<EventLink<?>>> byDispatcher = new IdentityHashMap<>();
+        for (int i = 0; i < count; i++) {
+            EventLink<?> link = owned[i];
+            link.scope = null;
+            if (link.getDispatcher() instanceof EventDispatcherImpl dispatcher) {
+                byDispatcher.computeIfAbsent(dispatcher, d -> new ArrayList<>()).add(link);
+            }
+        }
+        byDispatcher.forEach(EventDispatcherImpl::removeAllEventListenersByKeys);
+
+        for (int i = 0; i < count; i++) {
+            owned[i].unregister();
+        }
+    }
+
+    void forget(EventLink<?> link) {
+        if (closed) return;
+
+        // Swap-remove, order of release does not matter
+        int index = link.scopeIndex;
+        EventLink<?> last = links[--size];
+        links[index] = last;
+        last.scopeIndex = index;
+        links[size] = null;
+        link.scope = null;
+    }
+
+    private void checkOpen() {
+        if (closed) throw new IllegalStateException("Listener scope is closed");
+    }
+}
@@ -0,0 +1,225 @@
+/**
+ * Copyright (C) 2025 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ancevt.d2d2.input;
+
+/**
+ * Keyboard and mouse state for polling from game logic, taken once per frame.
+ * <p>
+ * Input arriving between frames is collected as it comes and becomes visible all at once when
+ * the next frame starts, so every query made during a frame sees the same state. Keys are kept
+ * in bitsets indexed by {@link KeyCode}, which makes each key query a single bit test. A key
+ * pressed and released within one frame is reported as pressed and released in that frame
+ * without ever being down.
+ * <p>
+ * The stage owns the instance and feeds it keyboard and wheel events, the interactive manager
+ * feeds it the mouse pointer. All methods must be called on the render thread.
+ */
+public final class InputState {
+
+    /**
+     * Key codes at or above this value are ignored.
+     */
+    public static final int KEY_CODE_LIMIT = 512;
+
+    private static final int KEY_WORDS = KEY_CODE_LIMIT >>> 6;
+
+    private final long[] keysDown = new long[KEY_WORDS];
+    private final long[] keysPressed = new long[KEY_WORDS];
+    private final long[] keysReleased = new long[KEY_WORDS];
+
+    private final long[] liveKeysDown = new long[KEY_WORDS];
+    private final long[] liveKeysPressed = new long[KEY_WORDS];
+    private final long[] liveKeysReleased = new long[KEY_WORDS];
+
+    private int mouseX;
+    private int mouseY;
+    private int mouseDeltaX;
+    private int mouseDeltaY;
+    private int buttonsDown;
+    private int buttonsPressed;
+    private int buttonsReleased;
+    private int wheelDelta;
+
+    private int liveMouseX;
+    private int liveMouseY;
+    private int liveButtonsDown;
+    private int liveButtonsPressed;
+    private int liveButtonsReleased;
+    private int liveWheelDelta;
+
+    /**
+     * Publishes the input collected since the previous frame. Called by the stage when a frame
+     * starts.
+     */
+    public void beginFrame() {
+        for (int i = 0; i < KEY_WORDS; i++) {
+            keysDown[i] = liveKeysDown[i];
+            keysPressed[i] = liveKeysPressed[i];
+            keysReleased[i] = liveKeysReleased[i];
+            liveKeysPressed[i] = 0;
+            liveKeysReleased[i] = 0;
+        }
+
+        mouseDeltaX = liveMouseX - mouseX;
+        mouseDeltaY = liveMouseY - mouseY;
+        mouseX = liveMouseX;
+        mouseY = liveMouseY;
+
+        buttonsDown = liveButtonsDown;
+        buttonsPressed = liveButtonsPressed;
+        buttonsReleased = liveButtonsReleased;
+        liveButtonsPressed = 0;
+        liveButtonsReleased = 0;
+
+        wheelDelta = liveWheelDelta;
+        liveWheelDelta = 0;
+    }
+
+    public void keyDown(int keyCode) {
+        if (keyCode < 0 || keyCode >= KEY_CODE_LIMIT) return;
+        int word = keyCode >>> 6;
+        long bit = 1L << keyCode;
+        // Auto-repeat is not a new press
+        if ((liveKeysDown[word] & bit) == 0) liveKeysPressed[word] |= bit;
+        liveKeysDown[word] |= bit;
+    }
+
+    public void keyUp(int keyCode) {
+        if (keyCode < 0 || keyCode >= KEY_CODE_LIMIT) return;
+        int word = keyCode >>> 6;
+        long bit = 1L << keyCode;
+        if ((liveKeysDown[word] & bit) != 0) liveKeysReleased[word] |= bit;
+        liveKeysDown[word] &= ~bit;
+    }
+
+    public void mouseMoved(int x, int y) {
+        liveMouseX = x;
+        liveMouseY = y;
+    }
+
+    public void mouseButton(int button, boolean down) {
+        if (button < 0 || button >= Integer.SIZE) return;
+        int bit = 1 << button;
+        if (down) {
+            if ((liveButtonsDown & bit) == 0) liveButtonsPressed |= bit;
+            liveButtonsDown |= bit;
+        } else {
+            if ((liveButtonsDown & bit) != 0) liveButtonsReleased |= bit;
+            liveButtonsDown &= ~bit;
+        }
+    }
+
+    public void mouseWheel(int delta) {
+        liveWheelDelta += delta;
+    }
+
+    /**
+     * Forgets all held keys and buttons, e.g. when the window loses focus and their release
+     * will never arrive. Takes effect at the next frame.
+     */
+    public void releaseAll() {
+        for (int i = 0; i < KEY_WORDS; i++) {
+            liveKeysReleased[i] |= liveKeysDown[i];
+            liveKeysDown[i] = 0;
+        }
+        liveButtonsReleased |= liveButtonsDown;
+        liveButtonsDown = 0;
+    }
+
+    public boolean isKeyDown(int keyCode) {
+        return test(keysDown, keyCode);
+    }
+
+    /**
+     * Whether the key went down since the previous frame.
+     */
+    public boolean isKeyPressed(int keyCode) {
+        return test(keysPressed, keyCode);
+    }
+
+    /**
+     * Whether the key went up since the previous frame.
+     */
+    public boolean isKeyReleased(int keyCode) {
+        return test(keysReleased, keyCode);
+    }
+
+    public boolean isAnyKeyDown() {
+        for (long word : keysDown) {
+            if (word != 0) return true;
+        }
+        return false;
+    }
+
+    public int getMouseX() {
+        return mouseX;
+    }
+
+    public int getMouseY() {
+        return mouseY;
+    }
+
+    /**
+     * Horizontal mouse movement since the previous frame.
+     */
+    public int getMouseDeltaX() {
+        return mouseDeltaX;
+    }
+
+    /**
+     * Vertical mouse movement since the previous frame.
+     */
+    public int getMouseDeltaY() {
+        return mouseDeltaY;
+    }
+
+    /**
+     * Held mouse buttons, bit {@code 1 << button} per {@link MouseButton}.
+     */
+    public int getButtonsDown() {
+        return buttonsDown;
+    }
+
+    public boolean isButtonDown(int button) {
+        return testButton(buttonsDown, button);
+    }
+
+    public boolean isButtonPressed(int button) {
+        return testButton(buttonsPressed, button);
+    }
+
+    public boolean isButtonReleased(int button) {
+        return testButton(buttonsReleased, button);
+    }
+
+    /**
+     * Wheel movement since the previous frame.
+     */
+    public int getWheelDelta() {
+        return wheelDelta;
+    }
+
+    private static boolean test(long[] bits, int keyCode) {
+        return keyCode >= 0 && keyCode < KEY_CODE_LIMIT && (bits[keyCode >>> 6] & (1L << keyCode)) != 0;
+    }
+
+    private static boolean testButton(int bits, int button) {
+        return button >= 0 && button < Integer.SIZE && (bits & (1 << button)) != 0;
+    }
+}
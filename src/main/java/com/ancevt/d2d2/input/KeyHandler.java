@@ -24,6 +24,11 @@ import lombok.Getter;
 
 import java.util.function.Consumer;
 
+/**
+ * Calls back when one key, optionally with modifiers, goes down, up, repeats or types. Game
+ * logic that only needs to know which keys are held polls
+ * {@link com.ancevt.d2d2.scene.Stage#getInputState()} instead.
+ */
 public class KeyHandler {
 
     private static final String EMPTY_STRING = "";
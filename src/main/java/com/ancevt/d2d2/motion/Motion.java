@@ -20,9 +20,8 @@ package com.ancevt.d2d2.motion;
 
 import com.ancevt.d2d2.D2D2;
 import com.ancevt.d2d2.event.CommonEvent;
-import com.ancevt.d2d2.event.StageEvent;
-import com.ancevt.d2d2.event.core.Event;
 import com.ancevt.d2d2.event.core.EventDispatcherImpl;
+import com.ancevt.d2d2.scene.Updatable;
 import lombok.Getter;
 
 import java.util.function.Consumer;
@@ -42,6 +41,7 @@ public class Motion<N extends Number> extends EventDispatcherImpl {
     private final Consumer<N> applyFunction;
     private N currentValue;
     private final NumberOperations<N> numberOperations;
+    private final Updatable updatable = this::process;
 
     public Motion(N beginValue, N endValue, N step, Consumer<N> applyFunction) {
         this.beginValue = beginValue;
@@ -62,18 +62,13 @@ public class Motion<N extends Number> extends EventDispatcherImpl {
     }
 
     public void start() {
-        D2D2.getStage().removeEventListener(this, StageEvent.Tick.class);
-        D2D2.getStage().addEventListener(this, StageEvent.Tick.class, this::stage_loopUpdate);
+        D2D2.getStage().addUpdatable(updatable);
         dispatchEvent(CommonEvent.Start.create());
         state = IN_PROCESS;
     }
 
     public void stop() {
-        D2D2.getStage().removeEventListener(this, StageEvent.Tick.class);
-    }
-
-    private void stage_loopUpdate(Event event) {
-        process();
+        D2D2.getStage().removeUpdatable(updatable);
     }
 
     private void process() {
@@ -22,9 +22,9 @@ import com.ancevt.d2d2.D2D2;
 import com.ancevt.d2d2.engine.Engine;
 import com.ancevt.d2d2.event.NodeEvent;
 import com.ancevt.d2d2.event.core.EventDispatcherImpl;
+import com.ancevt.d2d2.event.core.ListenerScope;
 import com.ancevt.d2d2.scene.shader.ShaderProgram;
 import lombok.Getter;
-import lombok.Setter;
 
 public abstract class AbstractNode extends EventDispatcherImpl implements Node {
 
@@ -32,6 +32,10 @@ public abstract class AbstractNode extends EventDispatcherImpl implements Node {
     private final int nodeId;
     private String name;
     private BasicGroup parent;
+    int childIndexHint = -1;
+    boolean onStage;
+    SpatialIndex.Entry spatialEntry;
+    private ListenerScope listenerScope;
     private float x;
     private float y;
     private float scaleX = 1.0f;
@@ -40,19 +44,33 @@ public abstract class AbstractNode extends EventDispatcherImpl implements Node {
     private float rotation;
     private boolean visible = true;
     private int zOrderIndex;
+    private int zIndex;
     private boolean integerPixelAlignmentEnabled = true;
 
+    private boolean worldStateDirty = true;
+    private final Matrix2D globalTransform = new Matrix2D();
+    private Matrix2D inverseGlobalTransform;
+    private boolean inverseGlobalTransformDirty = true;
+    private float globalScaleX;
+    private float globalScaleY;
+    private float globalRotation;
+    private float globalAlpha;
+    private boolean globallyVisible;
+
+    private final Rect bounds = new Rect();
+    private final Rect globalBounds = new Rect();
+    private boolean boundsDirty = true;
+    private boolean globalBoundsDirty = true;
+
     protected final Stage stage = D2D2.getStage();
     protected final Engine engine = D2D2.getEngine();
     private boolean disposed;
 
     @Getter
-    @Setter
     private ShaderProgram shaderProgram;
 
     protected AbstractNode() {
         nodeId = displayObjectIdCounter++;
-        name = "_" + getClass().getSimpleName() + getNodeId();
     }
 
     @Override
@@ -62,12 +80,21 @@ public abstract class AbstractNode extends EventDispatcherImpl implements Node {
 
     @Override
     public String getName() {
+        if (name == null) {
+            name = "_" + getClass().getSimpleName() + getNodeId();
+        }
         return name;
     }
 
     @Override
     public void setName(String value) {
-        this.name = value;
+        if (parent != null && parent.isChildNameIndexEnabled()) {
+            String oldName = getName();
+            this.name = value;
+            parent.onChildRenamed(this, oldName);
+        } else {
+            this.name = value;
+        }
     }
 
     @Override
@@ -80,8 +107,22 @@ public abstract class AbstractNode extends EventDispatcherImpl implements Node {
         return zOrderIndex;
     }
 
+    @Override
+    public void setZIndex(int zIndex) {
+        if (this.zIndex == zIndex) return;
+        int oldZIndex = this.zIndex;
+        this.zIndex = zIndex;
+        if (parent != null) parent.childZIndexChanged(oldZIndex, zIndex);
+    }
+
+    @Override
+    public int getZIndex() {
+        return zIndex;
+    }
+
     final void setParent(final BasicGroup container) {
         this.parent = container;
+        invalidateWorldState();
     }
 
     @Override
@@ -102,7 +143,9 @@ public abstract class AbstractNode extends EventDispatcherImpl implements Node {
 
     @Override
     public void setX(float value) {
+        if (x == value) return;
         this.x = value;
+        invalidateTransform();
     }
 
     @Override
@@ -112,7 +155,9 @@ public abstract class AbstractNode extends EventDispatcherImpl implements Node {
 
     @Override
     public void setY(float value) {
+        if (y == value) return;
         this.y = value;
+        invalidateTransform();
     }
 
     @Override
@@ -128,7 +173,9 @@ public abstract class AbstractNode extends EventDispatcherImpl implements Node {
 
     @Override
     public void setScaleX(float value) {
+        if (scaleX == value) return;
         this.scaleX = value;
+        invalidateTransform();
     }
 
     @Override
@@ -138,7 +185,9 @@ public abstract class AbstractNode extends EventDispatcherImpl implements Node {
 
     @Override
     public void setScaleY(float value) {
+        if (scaleY == value) return;
         this.scaleY = value;
+        invalidateTransform();
     }
 
     @Override
@@ -148,19 +197,42 @@ public abstract class AbstractNode extends EventDispatcherImpl implements Node {
 
     @Override
     public boolean isOnScreen() {
-        Group currentParent = getParent();
+        return onStage;
+    }
 
-        while (currentParent != null) {
-            if (currentParent instanceof Stage) return true;
-            currentParent = currentParent.getParent();
+    @Override
+    public ListenerScope getListenerScope() {
+        if (listenerScope == null) {
+            listenerScope = new ListenerScope();
         }
+        return listenerScope;
+    }
 
-        return false;
+    final void closeListenerScope() {
+        if (listenerScope != null) {
+            listenerScope.close();
+            listenerScope = null;
+        }
     }
 
     @Override
     public void setVisible(boolean value) {
+        if (visible == value) return;
         this.visible = value;
+        invalidateWorldState();
+        drawOrderChanged();
+        if (parent != null) parent.invalidateContent();
+    }
+
+    /**
+     * Tells the stage that the draw indices of the nodes on it no longer match the scene.
+     */
+    final void drawOrderChanged() {
+        if (this instanceof Stage s) {
+            s.drawOrderVersion++;
+        } else if (onStage) {
+            D2D2.getStage().drawOrderVersion++;
+        }
     }
 
     @Override
@@ -170,7 +242,9 @@ public abstract class AbstractNode extends EventDispatcherImpl implements Node {
 
     @Override
     public void setRotation(float degrees) {
+        if (rotation == degrees) return;
         rotation = degrees;
+        invalidateTransform();
     }
 
     @Override
@@ -180,7 +254,7 @@ public abstract class AbstractNode extends EventDispatcherImpl implements Node {
 
     @Override
     public void rotate(float toRotation) {
-        rotation += toRotation;
+        setRotation(rotation + toRotation);
     }
 
     @Override
@@ -237,37 +311,199 @@ public abstract class AbstractNode extends EventDispatcherImpl implements Node {
 
     @Override
     public float getGlobalX() {
-        return GlobalMetrics.getGlobalX(this);
+        validateWorldState();
+        return globalTransform.tx;
     }
 
     @Override
     public float getGlobalY() {
-        return GlobalMetrics.getGlobalY(this);
+        validateWorldState();
+        return globalTransform.ty;
     }
 
     @Override
     public float getGlobalScaleX() {
-        return GlobalMetrics.getGlobalScaleX(this);
+        validateWorldState();
+        return globalScaleX;
     }
 
     @Override
     public float getGlobalScaleY() {
-        return GlobalMetrics.getGlobalScaleY(this);
+        validateWorldState();
+        return globalScaleY;
     }
 
     @Override
     public float getGlobalAlpha() {
-        return GlobalMetrics.getGlobalAlpha(this);
+        validateWorldState();
+        return globalAlpha;
     }
 
     @Override
     public float getGlobalRotation() {
-        return GlobalMetrics.getGlobalRotation(this);
+        validateWorldState();
+        return globalRotation;
     }
 
     @Override
     public boolean isGloballyVisible() {
-        return GlobalMetrics.isGloballyVisible(this);
+        validateWorldState();
+        return globallyVisible;
+    }
+
+    @Override
+    public Matrix2D getGlobalTransform(Matrix2D out) {
+        validateWorldState();
+        return out.set(globalTransform);
+    }
+
+    @Override
+    public void localToGlobal(float[] src, int srcOffset, float[] dst, int dstOffset, int count) {
+        validateWorldState();
+        globalTransform.transformPoints(src, srcOffset, dst, dstOffset, count);
+    }
+
+    @Override
+    public void globalToLocal(float[] src, int srcOffset, float[] dst, int dstOffset, int count) {
+        validateWorldState();
+        if (inverseGlobalTransformDirty) {
+            if (inverseGlobalTransform == null) inverseGlobalTransform = new Matrix2D();
+            globalTransform.invert(inverseGlobalTransform);
+            inverseGlobalTransformDirty = false;
+        }
+        inverseGlobalTransform.transformPoints(src, srcOffset, dst, dstOffset, count);
+    }
+
+    @Override
+    public Rect getBounds(Rect out) {
+        validateBounds();
+        return out.set(bounds);
+    }
+
+    @Override
+    public Rect getGlobalBounds(Rect out) {
+        validateGlobalBounds();
+        return out.set(globalBounds);
+    }
+
+    /**
+     * Must be called by subclasses whenever something that affects {@link #computeBounds(Rect)}
+     * (e.g. the value of {@link #getWidth()} or {@link #getHeight()}) changes. Marks the bounds of
+     * this node and all of its ancestors as stale, stopping at the first ancestor that is
+     * already stale.
+     */
+    protected final void invalidateBounds() {
+        invalidateContent();
+
+        AbstractNode node = this;
+        while (node != null && !node.boundsDirty) {
+            node.boundsDirty = true;
+            node.globalBoundsDirty = true;
+            if (node.spatialEntry != null) SpatialIndex.markDirty(node.spatialEntry);
+            node = node.parent;
+        }
+    }
+
+    /**
+     * Must be called by subclasses whenever their appearance changes without affecting their
+     * bounds, e.g. on a color change. Marks the cached textures of this node and its ancestors
+     * rendered with {@link Group#setCacheAsTexture(boolean)} as stale; does nothing off stage or
+     * while no group on stage uses caching.
+     */
+    protected final void invalidateContent() {
+        // Caching groups off stage are re-rendered when they are added back anyway
+        if (!onStage || D2D2.getStage().getCachingGroupCount() == 0) return;
+
+        for (AbstractNode node = this; node != null; node = node.parent) {
+            if (node instanceof BasicGroup group) group.invalidateCachedTexture();
+        }
+    }
+
+    @Override
+    public void setShaderProgram(ShaderProgram shaderProgram) {
+        if (this.shaderProgram == shaderProgram) return;
+        this.shaderProgram = shaderProgram;
+        if (parent != null) parent.invalidateContent();
+    }
+
+    /**
+     * Computes the node's bounds in its own coordinate space. The result is cached until
+     * {@link #invalidateBounds()} is called.
+     */
+    protected void computeBounds(Rect out) {
+        out.set(0f, 0f, getWidth(), getHeight());
+    }
+
+    final void validateBounds() {
+        if (!boundsDirty) return;
+        computeBounds(bounds);
+        boundsDirty = false;
+    }
+
+    final void validateGlobalBounds() {
+        validateWorldState();
+        validateBounds();
+        if (!globalBoundsDirty) return;
+        globalTransform.transformBounds(bounds, globalBounds);
+        globalBoundsDirty = false;
+    }
+
+    private void invalidateTransform() {
+        invalidateWorldState();
+        if (parent != null) parent.invalidateBounds();
+    }
+
+    /**
+     * Marks the cached global (world) state of this node and its whole subtree as stale.
+     * A node that is already dirty is skipped together with its subtree: a dirty node
+     * never has clean descendants, because validation always goes through the parent first.
+     */
+    final void invalidateWorldState() {
+        if (worldStateDirty) return;
+        worldStateDirty = true;
+        if (spatialEntry != null) SpatialIndex.markDirty(spatialEntry);
+        onWorldStateInvalidated();
+    }
+
+    void onWorldStateInvalidated() {
+    }
+
+    final boolean isWorldStateDirty() {
+        return worldStateDirty;
+    }
+
+    /**
+     * Recomputes the global transform, scale, rotation, alpha and visibility from the
+     * parent's cached values if anything changed since the last computation. The Stage's
+     * own transform is not applied to its children.
+     */
+    final void validateWorldState() {
+        if (!worldStateDirty) return;
+
+        AbstractNode p = parent;
+        if (p == null || p instanceof Stage) {
+            globalTransform.setTransform(x, y, scaleX, scaleY, rotation);
+            globalScaleX = scaleX;
+            globalScaleY = scaleY;
+            globalRotation = rotation;
+            globalAlpha = alpha;
+            globallyVisible = visible;
+        } else {
+            p.validateWorldState();
+            globalTransform
+                    .setTransform(x, y, scaleX, scaleY, rotation)
+                    .prepend(p.globalTransform);
+            globalScaleX = p.globalScaleX * scaleX;
+            globalScaleY = p.globalScaleY * scaleY;
+            globalRotation = p.globalRotation + rotation;
+            globalAlpha = p.globalAlpha * alpha;
+            globallyVisible = p.globallyVisible && visible;
+        }
+
+        inverseGlobalTransformDirty = true;
+        globalBoundsDirty = true;
+        worldStateDirty = false;
+        if (stage != null) stage.worldStateUpdateCounter++;
     }
 
     @Override
@@ -279,7 +515,10 @@ public abstract class AbstractNode extends EventDispatcherImpl implements Node {
 
     @Override
     public void setAlpha(float value) {
+        if (alpha == value) return;
         this.alpha = value;
+        invalidateWorldState();
+        if (parent != null) parent.invalidateContent();
     }
 
     @Override
@@ -289,7 +528,7 @@ public abstract class AbstractNode extends EventDispatcherImpl implements Node {
 
     @Override
     public void toAlpha(float value) {
-        alpha *= value;
+        setAlpha(alpha * value);
     }
 
     @Override
@@ -304,14 +543,16 @@ public abstract class AbstractNode extends EventDispatcherImpl implements Node {
 
     @Override
     public String toString() {
-        return getClass().getSimpleName() + "{" + "displayObjectId=" + nodeId + ", name='" + name + "'}";
+        return getClass().getSimpleName() + "{" + "displayObjectId=" + nodeId + ", name='" + getName() + "'}";
     }
 
     @Override
     public void dispose() {
         removeFromParent();
+        while (spatialEntry != null) spatialEntry.index.remove(this);
         stage.removeAllEventListenersByKey(this);
         dispatchEvent(NodeEvent.Dispose.create());
+        closeListenerScope();
         disposed = true;
     }
 
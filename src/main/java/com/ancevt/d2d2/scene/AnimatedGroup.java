@@ -33,7 +33,6 @@ public class AnimatedGroup extends BasicGroup implements Animated {
     private boolean backward;
 
     public AnimatedGroup() {
-        setName("_" + getClass().getSimpleName() + getNodeId());
     }
 
     public AnimatedGroup(Sprite[] frameSprites) {
@@ -51,7 +51,6 @@ public class AnimatedSprite extends BasicSprite implements Animated {
     }
 
     public AnimatedSprite() {
-        setName("_" + getClass().getSimpleName() + getNodeId());
     }
 
     @Override
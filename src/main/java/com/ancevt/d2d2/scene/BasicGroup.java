@@ -18,11 +18,15 @@
 
 package com.ancevt.d2d2.scene;
 
+import com.ancevt.d2d2.D2D2;
 import com.ancevt.d2d2.event.NodeEvent;
 import com.ancevt.d2d2.exception.ContainerException;
+import com.ancevt.d2d2.scene.texture.Texture;
 
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 public class BasicGroup extends AbstractNode implements Group {
@@ -30,11 +34,40 @@ public class BasicGroup extends AbstractNode implements Group {
     static final float MAX_X = Float.MAX_VALUE;
     static final float MAX_Y = Float.MAX_VALUE;
 
-    final List<Node> children;
+    // Scene graph updates happen on the render thread only, so bounds computation can share these
+    private static final Rect SCRATCH_RECT = new Rect();
+    private static final Matrix2D SCRATCH_MATRIX = new Matrix2D();
+
+    // Bounded so that lookups built from dynamic strings cannot grow the cache without limit
+    private static final int MAX_RESOLVED_LOOKUPS = 256;
+
+    final ChildList children;
+
+    private float contentWidth;
+    private float contentHeight;
+    private boolean hasForeignChildren;
+    private boolean hasUnboundedContent;
+
+    private Map<String, Node> childNameIndex;
+    private Map<String, Integer> duplicateChildNames;
+
+    private SpatialIndex childSpatialIndex;
+
+    // Children sorted by z-index, only maintained once a child has had a z-index set
+    private Node[] drawOrder;
+    // Children with a non-zero z-index; while there are none the child order is the draw order
+    private int zIndexedChildCount;
+    private boolean drawOrderDirty;
+
+    private boolean cacheAsTexture;
+    private boolean cachedTextureDirty;
+    private Texture cachedTexture;
+
+    private Map<String, Node> resolvedDescendants;
+    private Map<String, Node> resolvedPaths;
 
     public BasicGroup() {
-        children = new CopyOnWriteArrayList<>();
-        setName("_" + getClass().getSimpleName() + getNodeId());
+        children = new ChildList();
     }
 
     private void addChildInternal(Node child, int index, Float x, Float y, PlaceBy placeBy) {
@@ -46,17 +79,29 @@ public class BasicGroup extends AbstractNode implements Group {
             child.setPosition(x, y);
         }
 
+        boolean alreadyChild = child instanceof AbstractNode ? child.getParent() == this : children.contains(child);
+
         if (child instanceof AbstractNode d) d.setParent(this);
 
         child.dispatchEvent(NodeEvent.Add.create(this));
 
-        children.remove(child);
-        if (index != -1) {
-            children.add(index, child);
+        int currentIndex = alreadyChild ? children.indexOf(child) : -1;
+        if (currentIndex != -1) {
+            children.move(currentIndex, index != -1 ? index : children.size() - 1);
         } else {
-            children.add(child);
+            if (index != -1) {
+                children.add(index, child);
+            } else {
+                children.add(child);
+            }
+            if (childNameIndex != null) indexChildName(child, child.getName());
+            if (childSpatialIndex != null) childSpatialIndex.add(child);
+            if (child.getZIndex() != 0) zIndexedChildCount++;
         }
 
+        invalidateBounds();
+        invalidateDrawOrder();
+
         if (placeBy != null) {
             placeBy(child, placeBy);
         }
@@ -113,7 +158,48 @@ public class BasicGroup extends AbstractNode implements Group {
         Stage.dispatchRemoveFromStage(child);
         if (child instanceof AbstractNode d) d.setParent(null);
         child.dispatchEvent(NodeEvent.Remove.create(this));
-        children.remove(child);
+        if (children.remove(child)) {
+            if (childNameIndex != null) unindexChildName(child, child.getName());
+            if (childSpatialIndex != null) childSpatialIndex.remove(child);
+            if (child.getZIndex() != 0) zIndexedChildCount--;
+        }
+        invalidateBounds();
+        invalidateDrawOrder();
+    }
+
+    @Override
+    public void addChildren(Node... nodes) {
+        children.ensureCapacity(children.size() + nodes.length);
+        for (Node node : nodes) {
+            addChild(node);
+        }
+    }
+
+    /**
+     * Removes the children in {@code [from, to)} with a single shift of the child array,
+     * dispatching the usual remove events for each of them afterwards.
+     */
+    @Override
+    public void removeChildren(int from, int to) {
+        if (from < 0 || to > children.size() || from > to)
+            throw new ContainerException("Child range [%d, %d) out of bounds (0-%d)".formatted(from, to, children.size()));
+        if (from == to) return;
+
+        Node[] removed = children.snapshot();
+        children.removeRange(from, to);
+
+        for (int i = from; i < to; i++) {
+            Node child = removed[i];
+            Stage.dispatchRemoveFromStage(child);
+            if (child instanceof AbstractNode d) d.setParent(null);
+            child.dispatchEvent(NodeEvent.Remove.create(this));
+            if (childNameIndex != null) unindexChildName(child, child.getName());
+            if (childSpatialIndex != null) childSpatialIndex.remove(child);
+            if (child.getZIndex() != 0) zIndexedChildCount--;
+        }
+
+        invalidateBounds();
+        invalidateDrawOrder();
     }
 
     @Override
@@ -141,63 +227,407 @@ public class BasicGroup extends AbstractNode implements Group {
 
     @Override
     public Node getChild(String name) {
-        for (Node node : children) {
+        Node node = findChild(name);
+        if (node == null)
+            throw new ContainerException("No such display object named \"%s\" in container \"%s\"".formatted(name, getName()));
+        return node;
+    }
+
+    private Node findChild(String name) {
+        if (childNameIndex != null && !duplicateChildNames.containsKey(name)) {
+            return childNameIndex.get(name);
+        }
+        return findChildLinear(name);
+    }
+
+    private Node findChildLinear(String name) {
+        for (int i = 0; i < children.size(); i++) {
+            Node node = children.get(i);
             if (node.getName().equals(name)) return node;
         }
-        throw new ContainerException("No such display object named \"%s\" in container \"%s\"".formatted(name, getName()));
+        return null;
+    }
+
+    /**
+     * Enables a hash index over the children's names, making {@link #getChild(String)} O(1).
+     * The index is kept in sync on add, remove and {@link Node#setName(String)}; names shared by
+     * several children fall back to a scan so the first one in child order is still returned.
+     */
+    public void setChildNameIndexEnabled(boolean enabled) {
+        if (enabled == isChildNameIndexEnabled()) return;
+
+        if (enabled) {
+            childNameIndex = new HashMap<>();
+            duplicateChildNames = new HashMap<>();
+            for (int i = 0; i < children.size(); i++) {
+                Node child = children.get(i);
+                indexChildName(child, child.getName());
+            }
+        } else {
+            childNameIndex = null;
+            duplicateChildNames = null;
+        }
+    }
+
+    public boolean isChildNameIndexEnabled() {
+        return childNameIndex != null;
+    }
+
+    void onChildRenamed(Node child, String oldName) {
+        unindexChildName(child, oldName);
+        indexChildName(child, child.getName());
+    }
+
+    private void indexChildName(Node child, String name) {
+        if (childNameIndex.putIfAbsent(name, child) != null) {
+            duplicateChildNames.merge(name, 1, Integer::sum);
+        }
+    }
+
+    private void unindexChildName(Node child, String name) {
+        Integer duplicates = duplicateChildNames.get(name);
+        if (duplicates == null) {
+            childNameIndex.remove(name);
+        } else {
+            if (duplicates == 1) {
+                duplicateChildNames.remove(name);
+            } else {
+                duplicateChildNames.put(name, duplicates - 1);
+            }
+            if (childNameIndex.get(name) == child) {
+                childNameIndex.put(name, findChildLinear(name));
+            }
+        }
     }
 
+    /**
+     * Keeps the world bounds of this group's children in the given index: current children are
+     * added right away, children added later are tracked on add and dropped on remove.
+     * Passing {@code null} stops tracking the children.
+     */
+    public void setChildSpatialIndex(SpatialIndex index) {
+        if (index == childSpatialIndex) return;
+
+        for (int i = 0; i < children.size(); i++) {
+            Node child = children.get(i);
+            if (childSpatialIndex != null) childSpatialIndex.remove(child);
+            if (index != null) index.add(child);
+        }
+        childSpatialIndex = index;
+    }
+
+    public SpatialIndex getChildSpatialIndex() {
+        return childSpatialIndex;
+    }
+
+    /**
+     * Finds a descendant by name, searching depth-first. The result is cached and revalidated on
+     * the next call by walking up from the cached node, so repeated lookups do not rescan the subtree.
+     */
     @Override
-    public void removeAllChildren() {
-        for (Node child : children) {
-            removeChild(child);
+    @SuppressWarnings("unchecked")
+    public <T extends Node> Optional<T> findDescendant(String name) {
+        if (resolvedDescendants != null) {
+            Node cached = resolvedDescendants.get(name);
+            if (cached != null && name.equals(cached.getName()) && isDescendant(cached)) {
+                return Optional.of((T) cached);
+            }
+        }
+
+        Optional<T> result = Group.super.findDescendant(name);
+        result.ifPresent(node -> resolvedDescendants = cacheLookup(resolvedDescendants, name, node));
+        return result;
+    }
+
+    /**
+     * Resolves a slash-separated path of child names such as {@code "hud/minimap/marker"}.
+     * The result is cached and revalidated against the path on the next call.
+     *
+     * @throws ContainerException if any segment of the path cannot be resolved
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends Node> T getChildByPath(String path) {
+        if (resolvedPaths != null) {
+            Node cached = resolvedPaths.get(path);
+            if (cached != null && matchesPath(cached, path)) {
+                return (T) cached;
+            }
+        }
+
+        T result = Group.super.getChildByPath(path);
+        resolvedPaths = cacheLookup(resolvedPaths, path, result);
+        return result;
+    }
+
+    private static Map<String, Node> cacheLookup(Map<String, Node> cache, String key, Node node) {
+        if (cache == null) {
+            cache = new HashMap<>();
+        } else if (cache.size() >= MAX_RESOLVED_LOOKUPS && !cache.containsKey(key)) {
+            cache.clear();
+        }
+        cache.put(key, node);
+        return cache;
+    }
+
+    private boolean isDescendant(Node node) {
+        for (Group p = node.getParent(); p != null; p = p.getParent()) {
+            if (p == this) return true;
+        }
+        return false;
+    }
+
+    private boolean matchesPath(Node node, String path) {
+        int end = path.length();
+        while (true) {
+            int start = path.lastIndexOf('/', end - 1) + 1;
+            String name = node.getName();
+            if (name.length() != end - start || !path.regionMatches(start, name, 0, name.length())) return false;
+
+            Group p = node.getParent();
+            if (start == 0) return p == this;
+            if (p == null) return false;
+
+            node = p;
+            end = start - 1;
         }
     }
 
+    @Override
+    public void removeAllChildren() {
+        removeChildren(0, children.size());
+    }
+
     @Override
     public boolean contains(Node child) {
         return children.contains(child);
     }
 
+    @Override
+    public void setCacheAsTexture(boolean cacheAsTexture) {
+        if (this.cacheAsTexture == cacheAsTexture) return;
+        this.cacheAsTexture = cacheAsTexture;
+
+        if (cacheAsTexture) {
+            cachedTextureDirty = true;
+            if (onStage) D2D2.getStage().addCachingGroup(this);
+        } else {
+            if (onStage) D2D2.getStage().removeCachingGroup(this);
+            releaseCachedTexture();
+        }
+    }
+
+    @Override
+    public boolean isCacheAsTexture() {
+        return cacheAsTexture;
+    }
 
     @Override
-    public float getWidth() {
-        float min = MAX_X;
-        float max = 0;
+    public Texture getCachedTexture() {
+        return cachedTexture;
+    }
+
+    void invalidateCachedTexture() {
+        if (cacheAsTexture) cachedTextureDirty = true;
+    }
+
+    boolean isCachedTextureDirty() {
+        return cachedTextureDirty;
+    }
+
+    /**
+     * Releases the cached texture of a group leaving the stage; it is rendered again once the
+     * group is back.
+     */
+    void dropCachedTexture() {
+        releaseCachedTexture();
+        cachedTextureDirty = true;
+    }
 
-        if(children.isEmpty()) {
-            return 0f;
+    /**
+     * Re-renders the cached texture if something in the subtree changed since the last render.
+     * Called by the stage before the render list is built, never during its traversal.
+     */
+    void validateCachedTexture() {
+        if (!cachedTextureDirty) return;
+        cachedTextureDirty = false;
+        releaseCachedTexture();
+
+        int width = (int) Math.ceil(getWidth());
+        int height = (int) Math.ceil(getHeight());
+        if (width <= 0 || height <= 0) return;
+
+        // Render the subtree itself rather than the (stale) cache
+        cacheAsTexture = false;
+        try {
+            cachedTexture = D2D2.getTextureManager().renderGroupToTexture(this, width, height);
+        } finally {
+            cacheAsTexture = true;
         }
+    }
 
-        for (final Node child : children) {
-            float x = child.getX();
-            float xw = x + child.getWidth();
+    private void releaseCachedTexture() {
+        if (cachedTexture != null) {
+            D2D2.getTextureManager().unloadTexture(cachedTexture);
+            cachedTexture = null;
+        }
+    }
+
+    @Override
+    public void dispose() {
+        setCacheAsTexture(false);
+        super.dispose();
+    }
 
-            min = Math.min(x, min);
-            max = Math.max(xw, max);
+    void childZIndexChanged(int oldZIndex, int newZIndex) {
+        if (oldZIndex == 0) zIndexedChildCount++;
+        if (newZIndex == 0) zIndexedChildCount--;
+        invalidateDrawOrder();
+    }
+
+    void invalidateDrawOrder() {
+        drawOrderChanged();
+        if (drawOrder == null) {
+            // Nothing to keep sorted until some child gets a non-zero z-index
+            if (zIndexedChildCount == 0) return;
+            drawOrder = new Node[children.size()];
         }
+        drawOrderDirty = true;
+    }
 
-        return max - min;
+    /**
+     * Returns the child drawn at the given position: the children ordered by z-index, ties
+     * broken by child order. The order is re-sorted only after a child was added, removed,
+     * moved or had its z-index changed.
+     */
+    Node getChildInDrawOrder(int index) {
+        if (drawOrder == null) return children.get(index);
+        if (drawOrderDirty) sortDrawOrder();
+        return drawOrder[index];
+    }
+
+    private void sortDrawOrder() {
+        int n = children.size();
+        if (drawOrder.length < n) drawOrder = new Node[n];
+        else Arrays.fill(drawOrder, n, drawOrder.length, null);
+
+        // Insertion sort: stable, allocation-free and linear for the usual nearly sorted case
+        for (int i = 0; i < n; i++) {
+            Node node = children.get(i);
+            int z = node.getZIndex();
+            int j = i - 1;
+            while (j >= 0 && drawOrder[j].getZIndex() > z) {
+                drawOrder[j + 1] = drawOrder[j];
+                j--;
+            }
+            drawOrder[j + 1] = node;
+        }
+        drawOrderDirty = false;
+    }
+
+    @Override
+    void onWorldStateInvalidated() {
+        for (int i = 0; i < children.size(); i++) {
+            if (children.get(i) instanceof AbstractNode child) child.invalidateWorldState();
+        }
+    }
+
+
+    /**
+     * The size is cached with the bounds, so an {@link AbstractNode} child whose size changes
+     * must call {@link AbstractNode#invalidateBounds()}. Children that are not abstract nodes
+     * cannot report changes and are measured on every call.
+     */
+    @Override
+    public float getWidth() {
+        validateBounds();
+        return hasForeignChildren ? measureWidth() : contentWidth;
     }
 
     @Override
     public float getHeight() {
+        validateBounds();
+        return hasForeignChildren ? measureHeight() : contentHeight;
+    }
+
+    private float measureWidth() {
+        float min = MAX_X;
+        float max = 0;
+        for (int i = 0; i < children.size(); i++) {
+            Node child = children.get(i);
+            min = Math.min(child.getX(), min);
+            max = Math.max(child.getX() + child.getWidth(), max);
+        }
+        return max - min;
+    }
+
+    private float measureHeight() {
         float min = MAX_Y;
         float max = 0;
+        for (int i = 0; i < children.size(); i++) {
+            Node child = children.get(i);
+            min = Math.min(child.getY(), min);
+            max = Math.max(child.getY() + child.getHeight(), max);
+        }
+        return max - min;
+    }
 
-        if(children.isEmpty()) {
-            return 0f;
+    /**
+     * Computes the union of the children's bounds and, in the same pass, the content size
+     * reported by {@link #getWidth()} and {@link #getHeight()}: the extent of the children's
+     * unscaled positions and sizes.
+     */
+    @Override
+    protected void computeBounds(Rect out) {
+        out.setEmpty();
+        hasForeignChildren = false;
+        hasUnboundedContent = false;
+
+        if (children.isEmpty()) {
+            contentWidth = 0f;
+            contentHeight = 0f;
+            return;
         }
 
-        for (final Node child : children) {
-            float y = child.getY();
-            float yh = y + child.getHeight();
+        float minX = MAX_X;
+        float maxX = 0;
+        float minY = MAX_Y;
+        float maxY = 0;
+
+        for (int i = 0; i < children.size(); i++) {
+            Node child = children.get(i);
+            if (!(child instanceof AbstractNode)) hasForeignChildren = true;
 
-            min = Math.min(y, min);
-            max = Math.max(yh, max);
+            float x = child.getX();
+            float y = child.getY();
+            minX = Math.min(x, minX);
+            maxX = Math.max(x + child.getWidth(), maxX);
+            minY = Math.min(y, minY);
+            maxY = Math.max(y + child.getHeight(), maxY);
+
+            Rect childBounds = child.getBounds(SCRATCH_RECT);
+            if (child instanceof BasicGroup group ? group.hasUnboundedContent : childBounds.isEmpty()) {
+                hasUnboundedContent = true;
+            }
+            if (childBounds.isEmpty()) continue;
+
+            SCRATCH_MATRIX
+                    .setTransform(x, y, child.getScaleX(), child.getScaleY(), child.getRotation())
+                    .transformBounds(childBounds, childBounds);
+            out.union(childBounds);
         }
 
-        return max - min;
+        contentWidth = maxX - minX;
+        contentHeight = maxY - minY;
+    }
+
+    /**
+     * Whether a descendant that is not a group has empty, i.e. unknown, bounds, so the bounds
+     * of this group may not cover everything it draws.
+     */
+    boolean hasUnboundedContent() {
+        validateBounds();
+        return hasUnboundedContent;
     }
 
     @Override
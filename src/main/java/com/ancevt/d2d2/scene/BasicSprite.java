@@ -32,12 +32,12 @@ public class BasicSprite extends AbstractNode implements Sprite {
     public BasicSprite() {
         setColor(DEFAULT_COLOR);
         setRepeat(1, 1);
-        setName("_" + getClass().getSimpleName() + getNodeId());
     }
 
     @Override
     public void setColor(Color color) {
         this.color = color;
+        invalidateContent();
     }
 
     @Override
@@ -83,7 +83,14 @@ public class BasicSprite extends AbstractNode implements Sprite {
 
     @Override
     public void setTextureRegion(TextureRegion value) {
+        TextureRegion previous = this.textureRegion;
         this.textureRegion = value;
+        if (previous == null || value == null
+                || previous.getWidth() != value.getWidth() || previous.getHeight() != value.getHeight()) {
+            invalidateBounds();
+        } else {
+            invalidateContent();
+        }
         if (textureRegion != null && textureRegion.getTexture().isDisposed()) {
             //TODO: uncomment following:
             //throw new IllegalStateException("Texture " + textureRegion.getTexture().getId() + " is disposed");
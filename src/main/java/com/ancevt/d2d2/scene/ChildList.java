@@ -0,0 +1,183 @@
+/**
+ * Copyright (C) 2025 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ancevt.d2d2.scene;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Array-backed child storage for {@link BasicGroup}.
+ * <p>
+ * Structural changes work in place, so adding, removing and moving children costs at most one
+ * {@link System#arraycopy} of the tail. Iteration goes through {@link #snapshot()}, which hands
+ * out the backing array and marks it shared: the first structural change after that copies the
+ * array once, so the snapshot stays intact while the scene keeps mutating. Groups that are only
+ * mutated between traversals therefore pay for at most one copy per traversal instead of one per
+ * change.
+ */
+final class ChildList {
+
+    private static final Node[] EMPTY = new Node[0];
+    private static final int MIN_CAPACITY = 4;
+
+    private Node[] elements = EMPTY;
+    private int size;
+    private boolean shared;
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    Node get(int index) {
+        checkIndex(index, size);
+        return elements[index];
+    }
+
+    /**
+     * Returns the backing array; only the first {@link #size()} elements are valid. The array is
+     * never modified afterwards, so it can be iterated safely while children are added or removed.
+     */
+    Node[] snapshot() {
+        shared = true;
+        return elements;
+    }
+
+    Stream<Node> stream() {
+        return Arrays.stream(snapshot(), 0, size);
+    }
+
+    int indexOf(Node node) {
+        if (node instanceof AbstractNode n) {
+            int hint = n.childIndexHint;
+            if (hint >= 0 && hint < size && elements[hint] == node) return hint;
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (elements[i] == node) {
+                if (node instanceof AbstractNode n) n.childIndexHint = i;
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    boolean contains(Node node) {
+        return indexOf(node) != -1;
+    }
+
+    void add(Node node) {
+        ensureWritable(size + 1);
+        setHint(node, size);
+        elements[size++] = node;
+    }
+
+    void add(int index, Node node) {
+        checkIndex(index, size + 1);
+        ensureWritable(size + 1);
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = node;
+        setHint(node, index);
+        size++;
+    }
+
+    void ensureCapacity(int capacity) {
+        if (capacity > elements.length) ensureWritable(capacity);
+    }
+
+    Node remove(int index) {
+        checkIndex(index, size);
+        ensureWritable(size);
+        Node removed = elements[index];
+        int tail = size - index - 1;
+        if (tail > 0) System.arraycopy(elements, index + 1, elements, index, tail);
+        elements[--size] = null;
+        return removed;
+    }
+
+    boolean remove(Node node) {
+        int index = indexOf(node);
+        if (index == -1) return false;
+        remove(index);
+        return true;
+    }
+
+    /**
+     * Removes children in {@code [from, to)} with a single array copy.
+     */
+    void removeRange(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Range [%d, %d) out of bounds for size %d".formatted(from, to, size));
+        }
+        if (from == to) return;
+
+        ensureWritable(size);
+        System.arraycopy(elements, to, elements, from, size - to);
+        int newSize = size - (to - from);
+        Arrays.fill(elements, newSize, size, null);
+        size = newSize;
+    }
+
+    /**
+     * Moves the child at {@code from} so that it ends up at {@code to}, shifting the children in between.
+     */
+    void move(int from, int to) {
+        checkIndex(from, size);
+        checkIndex(to, size);
+        if (from == to) return;
+
+        ensureWritable(size);
+        Node node = elements[from];
+        if (from < to) {
+            System.arraycopy(elements, from + 1, elements, from, to - from);
+        } else {
+            System.arraycopy(elements, to, elements, to + 1, from - to);
+        }
+        elements[to] = node;
+        setHint(node, to);
+    }
+
+    void clear() {
+        removeRange(0, size);
+    }
+
+    private void ensureWritable(int requiredCapacity) {
+        if (requiredCapacity > elements.length) {
+            int capacity = Math.max(MIN_CAPACITY, Math.max(requiredCapacity, elements.length + (elements.length >> 1)));
+            elements = Arrays.copyOf(elements, capacity);
+            shared = false;
+        } else if (shared) {
+            elements = elements.clone();
+            shared = false;
+        }
+    }
+
+    private static void setHint(Node node, int index) {
+        if (node instanceof AbstractNode n) n.childIndexHint = index;
+    }
+
+    private static void checkIndex(int index, int length) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index %d out of bounds for length %d".formatted(index, length));
+        }
+    }
+}
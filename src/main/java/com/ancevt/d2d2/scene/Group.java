@@ -20,6 +20,7 @@ package com.ancevt.d2d2.scene;
 
 
 import com.ancevt.d2d2.D2D2;
+import com.ancevt.d2d2.exception.ContainerException;
 import com.ancevt.d2d2.scene.texture.Texture;
 
 import java.util.*;
@@ -75,10 +76,25 @@ public interface Group extends Node {
         children.forEach(this::addChild);
     }
 
+    default void addChildren(Node... children) {
+        for (Node child : children) {
+            addChild(child);
+        }
+    }
+
     default void removeChildren(Collection<Node> children) {
         children.forEach(this::removeChild);
     }
 
+    /**
+     * Removes the children with indices in {@code [from, to)}.
+     */
+    default void removeChildren(int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            removeChild(getChild(i));
+        }
+    }
+
     Stream<Node> children();
 
     void removeChild(Node child);
@@ -91,10 +107,61 @@ public interface Group extends Node {
 
     Node getChild(String name);
 
+    /**
+     * Finds the first node with the given name below this group, searching depth-first.
+     */
+    @SuppressWarnings("unchecked")
+    default <T extends Node> Optional<T> findDescendant(String name) {
+        for (int i = 0; i < getNumChildren(); i++) {
+            Node child = getChild(i);
+            if (name.equals(child.getName())) return Optional.of((T) child);
+            if (child instanceof Group group) {
+                Optional<T> result = group.findDescendant(name);
+                if (result.isPresent()) return result;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Resolves a slash-separated path of child names, e.g. {@code "hud/minimap/marker"}.
+     *
+     * @throws ContainerException if any segment of the path cannot be resolved
+     */
+    @SuppressWarnings("unchecked")
+    default <T extends Node> T getChildByPath(String path) {
+        Node node = this;
+        int start = 0;
+        while (true) {
+            int end = path.indexOf('/', start);
+            String name = end == -1 ? path.substring(start) : path.substring(start, end);
+            if (!(node instanceof Group group))
+                throw new ContainerException("Cannot resolve \"%s\" in path \"%s\": \"%s\" is not a group".formatted(name, path, node.getName()));
+            node = group.getChild(name);
+            if (end == -1) return (T) node;
+            start = end + 1;
+        }
+    }
+
     boolean contains(Node child);
 
     void removeAllChildren();
 
+    /**
+     * Renders the subtree into a texture once and draws that texture as a single quad from then
+     * on. The texture is re-rendered on the next frame after a descendant changes through its
+     * setters. It covers {@code (0, 0, getWidth(), getHeight())} in local space, like {@link #toTexture()}.
+     */
+    void setCacheAsTexture(boolean cacheAsTexture);
+
+    boolean isCacheAsTexture();
+
+    /**
+     * Returns the texture drawn in place of the subtree, or {@code null} if caching is off or the
+     * texture has not been rendered yet.
+     */
+    Texture getCachedTexture();
+
     default Texture toTexture(int width, int height) {
         return D2D2.getTextureManager().renderGroupToTexture(
                 this,
@@ -0,0 +1,221 @@
+/**
+ * Copyright (C) 2025 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ancevt.d2d2.scene;
+
+/**
+ * Mutable 2D affine transform.
+ * <p>
+ * A point {@code (x, y)} is mapped to {@code (a * x + c * y + tx, b * x + d * y + ty)}.
+ * All operations write into existing instances and arrays, so matrices can be kept
+ * as fields and reused on hot paths without allocation.
+ */
+public final class Matrix2D {
+
+    private static final float DEG_TO_RAD = (float) (Math.PI / 180.0);
+
+    public float a;
+    public float b;
+    public float c;
+    public float d;
+    public float tx;
+    public float ty;
+
+    public Matrix2D() {
+        identity();
+    }
+
+    public Matrix2D(float a, float b, float c, float d, float tx, float ty) {
+        set(a, b, c, d, tx, ty);
+    }
+
+    public Matrix2D identity() {
+        return set(1f, 0f, 0f, 1f, 0f, 0f);
+    }
+
+    public boolean isIdentity() {
+        return a == 1f && b == 0f && c == 0f && d == 1f && tx == 0f && ty == 0f;
+    }
+
+    public Matrix2D set(float a, float b, float c, float d, float tx, float ty) {
+        this.a = a;
+        this.b = b;
+        this.c = c;
+        this.d = d;
+        this.tx = tx;
+        this.ty = ty;
+        return this;
+    }
+
+    public Matrix2D set(Matrix2D m) {
+        return set(m.a, m.b, m.c, m.d, m.tx, m.ty);
+    }
+
+    /**
+     * Composes translate * rotate * scale, the order in which nodes apply their own
+     * position, rotation and scale.
+     */
+    public Matrix2D setTransform(float x, float y, float scaleX, float scaleY, float rotationDegrees) {
+        if (rotationDegrees == 0f) {
+            return set(scaleX, 0f, 0f, scaleY, x, y);
+        }
+
+        float radians = rotationDegrees * DEG_TO_RAD;
+        float cos = (float) Math.cos(radians);
+        float sin = (float) Math.sin(radians);
+
+        return set(cos * scaleX, sin * scaleX, -sin * scaleY, cos * scaleY, x, y);
+    }
+
+    /**
+     * Sets this matrix to {@code left * right}, so that {@code right} is applied first.
+     * Either argument may be this matrix.
+     */
+    public Matrix2D setProduct(Matrix2D left, Matrix2D right) {
+        float na = left.a * right.a + left.c * right.b;
+        float nb = left.b * right.a + left.d * right.b;
+        float nc = left.a * right.c + left.c * right.d;
+        float nd = left.b * right.c + left.d * right.d;
+        float ntx = left.a * right.tx + left.c * right.ty + left.tx;
+        float nty = left.b * right.tx + left.d * right.ty + left.ty;
+        return set(na, nb, nc, nd, ntx, nty);
+    }
+
+    public Matrix2D prepend(Matrix2D left) {
+        return setProduct(left, this);
+    }
+
+    public Matrix2D append(Matrix2D right) {
+        return setProduct(this, right);
+    }
+
+    public float getDeterminant() {
+        return a * d - b * c;
+    }
+
+    /**
+     * Writes the inverse of this matrix into {@code out} (which may be this matrix).
+     * A singular matrix, e.g. one produced by a zero scale, inverts to all zeros.
+     */
+    public Matrix2D invert(Matrix2D out) {
+        float det = getDeterminant();
+        if (det == 0f) {
+            return out.set(0f, 0f, 0f, 0f, 0f, 0f);
+        }
+
+        float invDet = 1f / det;
+        float na = d * invDet;
+        float nb = -b * invDet;
+        float nc = -c * invDet;
+        float nd = a * invDet;
+        float ntx = (c * ty - d * tx) * invDet;
+        float nty = (b * tx - a * ty) * invDet;
+        return out.set(na, nb, nc, nd, ntx, nty);
+    }
+
+    public Matrix2D invert() {
+        return invert(this);
+    }
+
+    public float transformX(float x, float y) {
+        return a * x + c * y + tx;
+    }
+
+    public float transformY(float x, float y) {
+        return b * x + d * y + ty;
+    }
+
+    /**
+     * Transforms {@code count} points stored as interleaved {@code x, y} pairs.
+     * {@code src} and {@code dst} may be the same array, including overlapping ranges
+     * at the same offset.
+     */
+    public void transformPoints(float[] src, int srcOffset, float[] dst, int dstOffset, int count) {
+        final float a = this.a, b = this.b, c = this.c, d = this.d, tx = this.tx, ty = this.ty;
+        int s = srcOffset;
+        int t = dstOffset;
+
+        for (int i = 0; i < count; i++) {
+            float x = src[s++];
+            float y = src[s++];
+            dst[t++] = a * x + c * y + tx;
+            dst[t++] = b * x + d * y + ty;
+        }
+    }
+
+    public void transformPoints(float[] points) {
+        transformPoints(points, 0, points, 0, points.length / 2);
+    }
+
+    /**
+     * Writes the axis-aligned bounding box of {@code src} transformed by this matrix
+     * into {@code dst}. {@code src} and {@code dst} may be the same instance.
+     */
+    public Rect transformBounds(Rect src, Rect dst) {
+        final float minX = src.x;
+        final float minY = src.y;
+        final float maxX = src.x + src.width;
+        final float maxY = src.y + src.height;
+
+        final float ax0 = a * minX, ax1 = a * maxX;
+        final float bx0 = b * minX, bx1 = b * maxX;
+        final float cy0 = c * minY, cy1 = c * maxY;
+        final float dy0 = d * minY, dy1 = d * maxY;
+
+        return dst.setBounds(
+                tx + Math.min(ax0, ax1) + Math.min(cy0, cy1),
+                ty + Math.min(bx0, bx1) + Math.min(dy0, dy1),
+                tx + Math.max(ax0, ax1) + Math.max(cy0, cy1),
+                ty + Math.max(bx0, bx1) + Math.max(dy0, dy1)
+        );
+    }
+
+    public Matrix2D copy() {
+        return new Matrix2D(a, b, c, d, tx, ty);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Matrix2D m)) return false;
+        return a == m.a && b == m.b && c == m.c && d == m.d && tx == m.tx && ty == m.ty;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Float.hashCode(a);
+        result = 31 * result + Float.hashCode(b);
+        result = 31 * result + Float.hashCode(c);
+        result = 31 * result + Float.hashCode(d);
+        result = 31 * result + Float.hashCode(tx);
+        result = 31 * result + Float.hashCode(ty);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "Matrix2D{" +
+                "a=" + a +
+                ", b=" + b +
+                ", c=" + c +
+                ", d=" + d +
+                ", tx=" + tx +
+                ", ty=" + ty +
+                '}';
+    }
+}
@@ -25,6 +25,7 @@ import com.ancevt.d2d2.event.StageEvent;
 import com.ancevt.d2d2.event.core.EventDispatcher;
 import com.ancevt.d2d2.event.core.EventLink;
 import com.ancevt.d2d2.event.core.EventListener;
+import com.ancevt.d2d2.event.core.ListenerScope;
 import com.ancevt.d2d2.scene.shader.ShaderProgram;
 
 public interface Node extends EventDispatcher, Disposable {
@@ -94,6 +95,14 @@ public interface Node extends EventDispatcher, Disposable {
 
     boolean isOnScreen();
 
+    /**
+     * Returns the scope for listeners whose lifetime is bound to this node, typically ones
+     * registered on other dispatchers such as the stage. The scope is closed, and all its links
+     * unregistered, after the node is removed from the scene or disposed; the next call then
+     * returns a fresh scope.
+     */
+    ListenerScope getListenerScope();
+
     void setVisible(boolean value);
 
     boolean isVisible();
@@ -128,6 +137,21 @@ public interface Node extends EventDispatcher, Disposable {
 
     float getScaledHeight();
 
+    /**
+     * Copies the node's cached axis-aligned bounds in its own coordinate space into {@code out}.
+     * For groups these are the union of the children's bounds transformed into the group's space.
+     *
+     * @return {@code out}
+     */
+    Rect getBounds(Rect out);
+
+    /**
+     * Copies the node's cached axis-aligned bounds in global (stage) space into {@code out}.
+     *
+     * @return {@code out}
+     */
+    Rect getGlobalBounds(Rect out);
+
     float getGlobalX();
 
     float getGlobalY();
@@ -142,10 +166,61 @@ public interface Node extends EventDispatcher, Disposable {
 
     boolean isGloballyVisible();
 
+    /**
+     * Copies the node's cached local-to-global transform into {@code out}.
+     *
+     * @return {@code out}
+     */
+    Matrix2D getGlobalTransform(Matrix2D out);
+
+    /**
+     * Converts {@code count} interleaved {@code x, y} points from this node's local space
+     * to global (stage) space. {@code src} and {@code dst} may be the same array.
+     */
+    void localToGlobal(float[] src, int srcOffset, float[] dst, int dstOffset, int count);
+
+    /**
+     * Converts {@code count} interleaved {@code x, y} points from global (stage) space
+     * to this node's local space. {@code src} and {@code dst} may be the same array.
+     */
+    void globalToLocal(float[] src, int srcOffset, float[] dst, int dstOffset, int count);
+
+    default void localToGlobal(float[] src, float[] dst) {
+        localToGlobal(src, 0, dst, 0, src.length / 2);
+    }
+
+    default void globalToLocal(float[] src, float[] dst) {
+        globalToLocal(src, 0, dst, 0, src.length / 2);
+    }
+
+    default void localToGlobal(float[] points) {
+        localToGlobal(points, points);
+    }
+
+    default void globalToLocal(float[] points) {
+        globalToLocal(points, points);
+    }
+
+    /**
+     * Overrides the draw index. The index is normally assigned by {@link Stage#getRenderList()}
+     * on every frame, so a value set here only lasts until the next traversal.
+     */
     void setGlobalZOrderIndex(int zOrder);
 
+    /**
+     * Returns the position of this node in the last frame's draw order, starting at 1, or 0 if
+     * the node has not been traversed yet. Higher indices are drawn on top.
+     */
     int getGlobalZOrderIndex();
 
+    /**
+     * Sets the stacking order among siblings: children with a higher z-index are drawn after
+     * (on top of) those with a lower one, and children with equal z-indices keep their child order.
+     */
+    void setZIndex(int zIndex);
+
+    int getZIndex();
+
     void removeFromParent();
 
     void setIntegerPixelAlignmentEnabled(boolean value);
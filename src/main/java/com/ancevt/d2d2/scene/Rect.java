@@ -0,0 +1,126 @@
+/**
+ * Copyright (C) 2025 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ancevt.d2d2.scene;
+
+/**
+ * Mutable axis-aligned rectangle used for node bounds and spatial queries.
+ * Methods write into this instance so callers can reuse one rectangle per query.
+ */
+public final class Rect {
+
+    public float x;
+    public float y;
+    public float width;
+    public float height;
+
+    public Rect() {
+    }
+
+    public Rect(float x, float y, float width, float height) {
+        set(x, y, width, height);
+    }
+
+    public Rect set(float x, float y, float width, float height) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        return this;
+    }
+
+    public Rect set(Rect r) {
+        return set(r.x, r.y, r.width, r.height);
+    }
+
+    public Rect setBounds(float minX, float minY, float maxX, float maxY) {
+        return set(minX, minY, maxX - minX, maxY - minY);
+    }
+
+    public Rect setEmpty() {
+        return set(0f, 0f, 0f, 0f);
+    }
+
+    public float getRight() {
+        return x + width;
+    }
+
+    public float getBottom() {
+        return y + height;
+    }
+
+    public boolean isEmpty() {
+        return width <= 0f && height <= 0f;
+    }
+
+    public boolean contains(float px, float py) {
+        return px >= x && px <= x + width && py >= y && py <= y + height;
+    }
+
+    public boolean intersects(float rx, float ry, float rw, float rh) {
+        return rx <= x + width && rx + rw >= x && ry <= y + height && ry + rh >= y;
+    }
+
+    public boolean intersects(Rect r) {
+        return intersects(r.x, r.y, r.width, r.height);
+    }
+
+    /**
+     * Grows this rectangle to also cover {@code r}. An empty rectangle is replaced by {@code r}.
+     */
+    public Rect union(Rect r) {
+        if (r.isEmpty()) return this;
+        if (isEmpty()) return set(r);
+
+        float minX = Math.min(x, r.x);
+        float minY = Math.min(y, r.y);
+        float maxX = Math.max(x + width, r.x + r.width);
+        float maxY = Math.max(y + height, r.y + r.height);
+        return setBounds(minX, minY, maxX, maxY);
+    }
+
+    public Rect copy() {
+        return new Rect(x, y, width, height);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Rect r)) return false;
+        return x == r.x && y == r.y && width == r.width && height == r.height;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Float.hashCode(x);
+        result = 31 * result + Float.hashCode(y);
+        result = 31 * result + Float.hashCode(width);
+        result = 31 * result + Float.hashCode(height);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "Rect{" +
+                "x=" + x +
+                ", y=" + y +
+                ", width=" + width +
+                ", height=" + height +
+                '}';
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2025 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ancevt.d2d2.scene;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Compact, draw-ordered list of the nodes that survived viewport culling in a frame.
+ * <p>
+ * Built by {@link Stage#getRenderList()} with a single traversal of the scene: invisible
+ * subtrees are skipped, and groups whose cached global bounds miss the viewport are rejected
+ * together with everything below them. Only drawable (non-group) nodes end up in the list,
+ * except for groups cached with {@link Group#setCacheAsTexture(boolean)}, which are listed
+ * instead of their subtree.
+ * Nodes with empty bounds are never culled, since their extent is unknown, and neither are
+ * groups with such a node below them.
+ * <p>
+ * Siblings are visited in z-index order, so the list follows the draw indices
+ * ({@link Node#getGlobalZOrderIndex()}) assigned by {@link Stage#validateDrawIndices()}.
+ */
+public final class RenderList {
+
+    private final Rect scratch = new Rect();
+
+    private Node[] nodes = new Node[64];
+
+    @Getter
+    private int size;
+
+    /**
+     * Number of nodes rejected by the viewport test during the last build. A rejected group
+     * counts once; its descendants are not visited.
+     */
+    @Getter
+    private int culledCount;
+
+    /**
+     * Number of nodes whose bounds were tested against the viewport during the last build.
+     */
+    @Getter
+    private int testedCount;
+
+    @Getter
+    private boolean cullingEnabled = true;
+
+    RenderList() {
+    }
+
+    public Node get(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        return nodes[index];
+    }
+
+    public int getDrawnCount() {
+        return size;
+    }
+
+    public void setCullingEnabled(boolean cullingEnabled) {
+        this.cullingEnabled = cullingEnabled;
+    }
+
+    void build(Group root, Rect viewport) {
+        Arrays.fill(nodes, 0, size, null);
+        size = 0;
+        culledCount = 0;
+        testedCount = 0;
+
+        visitChildren(root, viewport);
+    }
+
+    private void visitChildren(Group group, Rect viewport) {
+        if (group instanceof BasicGroup basicGroup) {
+            for (int i = 0; i < basicGroup.getNumChildren(); i++) {
+                visit(basicGroup.getChildInDrawOrder(i), viewport);
+            }
+        } else {
+            for (int i = 0; i < group.getNumChildren(); i++) {
+                visit(group.getChild(i), viewport);
+            }
+        }
+    }
+
+    private void visit(Node node, Rect viewport) {
+        if (!node.isVisible()) return;
+
+        if (cullingEnabled) {
+            Rect bounds = node.getGlobalBounds(scratch);
+            testedCount++;
+            if (!bounds.isEmpty() && !bounds.intersects(viewport)
+                    && !(node instanceof BasicGroup group && group.hasUnboundedContent())) {
+                culledCount++;
+                return;
+            }
+        }
+
+        if (node instanceof BasicGroup group && group.isCacheAsTexture()) {
+            if (group.getCachedTexture() != null) add(node);
+        } else if (node instanceof Group group) {
+            visitChildren(group, viewport);
+        } else {
+            add(node);
+        }
+    }
+
+
+    private void add(Node node) {
+        if (size == nodes.length) nodes = Arrays.copyOf(nodes, size * 2);
+        nodes[size++] = node;
+    }
+}
@@ -0,0 +1,547 @@
+/**
+ * Copyright (C) 2025 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ancevt.d2d2.scene;
+
+import com.ancevt.d2d2.scene.shader.ShaderProgram;
+import com.ancevt.d2d2.scene.text.BitmapText;
+import com.ancevt.d2d2.scene.texture.Texture;
+import com.ancevt.d2d2.scene.texture.TextureRegion;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Flattened, state-sorted draw commands for one frame, built from the {@link RenderList}.
+ * <p>
+ * Command data is stored as parallel arrays (struct of arrays) so that backends can stream it
+ * into vertex buffers: for command {@code i}, {@code transforms[i * 6 .. i * 6 + 5]} holds the
+ * global transform as {@code a, b, c, d, tx, ty}, and the other buffers hold one value each.
+ * Texture and shader ids are 0 when the node has none.
+ * <p>
+ * Commands are reordered by (layer, shader, texture) only where the draw order allows it. Each
+ * command gets the lowest layer that keeps it above every earlier command it overlaps with a
+ * different state, and level with earlier overlapping commands of the same state. Candidates
+ * for overlap are found through a coarse screen grid; crowded cells are treated conservatively.
+ * After the sort, runs of commands sharing a shader and texture form the batches.
+ */
+public final class RenderQueue {
+
+    public static final int TRANSFORM_STRIDE = 6;
+
+    private static final int GRID_CELL_SIZE = 64;
+    private static final int MIXED_STATE = -1;
+    private static final int MAX_CELL_SCAN = 32;
+
+    // Sort keys pack layer, state rank and command index into a long
+    private static final int INDEX_BITS = 20;
+    private static final int STATE_BITS = 20;
+    private static final int MAX_SORTED_COMMANDS = 1 << INDEX_BITS;
+    private static final int MAX_LAYER = (1 << (63 - INDEX_BITS - STATE_BITS)) - 1;
+
+    @Getter
+    private int size;
+
+    private Node[] nodes = new Node[64];
+    private float[] transforms = new float[64 * TRANSFORM_STRIDE];
+    private int[] textureIds = new int[64];
+    private int[] shaderIds = new int[64];
+    private int[] colors = new int[64];
+    private int[] drawIndices = new int[64];
+    private int[] layers = new int[64];
+
+    @Getter
+    private int batchCount;
+    private int[] batchStarts = new int[16];
+
+    /**
+     * Number of state changes the commands would need in plain draw order; compare with
+     * {@link #getBatchCount()} to see what sorting saved.
+     */
+    @Getter
+    private int unsortedBatchCount;
+
+    @Getter
+    private long buildTimeNanos;
+
+    // Per-command state before sorting
+    private int[] states = new int[64];
+    private long[] sortKeys = new long[64];
+
+    // Distinct (shader, texture) pairs of the frame
+    private long[] statePairs = new long[16];
+    private int stateCount;
+    private int[] stateRanks = new int[16];
+    private final StateTable stateTable = new StateTable();
+
+    // Overlap grid
+    private int gridColumns;
+    private int gridRows;
+    private int[] cellLayers = new int[0];
+    private int[] cellStates = new int[0];
+    private int[] cellStamps = new int[0];
+    private int[] cellHeads = new int[0];
+    private int[] cellCounts = new int[0];
+    private int gridStamp;
+
+    // Per-cell linked lists of earlier commands, and the command bounds they are tested against
+    private int[] entryCommands = new int[256];
+    private int[] entryNext = new int[256];
+    private int entryCount;
+    private float[] commandBounds = new float[64 * 4];
+
+    private final Rect scratchRect = new Rect();
+    private final Matrix2D scratchMatrix = new Matrix2D();
+
+    // Reorder buffers
+    private Node[] sortedNodes = new Node[64];
+    private float[] sortedTransforms = new float[64 * TRANSFORM_STRIDE];
+    private int[] sortedInts = new int[64];
+
+    RenderQueue() {
+    }
+
+    public Node getNode(int index) {
+        checkIndex(index);
+        return nodes[index];
+    }
+
+    public int getTextureId(int index) {
+        checkIndex(index);
+        return textureIds[index];
+    }
+
+    public int getShaderId(int index) {
+        checkIndex(index);
+        return shaderIds[index];
+    }
+
+    /**
+     * Returns the command color as {@code 0xAARRGGBB}, with the node's global alpha applied.
+     */
+    public int getColor(int index) {
+        checkIndex(index);
+        return colors[index];
+    }
+
+    public int getDrawIndex(int index) {
+        checkIndex(index);
+        return drawIndices[index];
+    }
+
+    public int getLayer(int index) {
+        checkIndex(index);
+        return layers[index];
+    }
+
+    /**
+     * Returns the index of the first command of the given batch; the batch ends where the
+     * next one starts, or at {@link #getSize()}.
+     */
+    public int getBatchStart(int batch) {
+        if (batch < 0 || batch >= batchCount) throw new IndexOutOfBoundsException("Batch " + batch + " out of bounds for " + batchCount);
+        return batchStarts[batch];
+    }
+
+    public int getBatchEnd(int batch) {
+        return batch + 1 < batchCount ? batchStarts[batch + 1] : size;
+    }
+
+    // Raw buffers, valid for indices below getSize() until the next build
+
+    public float[] getTransformBuffer() {
+        return transforms;
+    }
+
+    public int[] getTextureIdBuffer() {
+        return textureIds;
+    }
+
+    public int[] getShaderIdBuffer() {
+        return shaderIds;
+    }
+
+    public int[] getColorBuffer() {
+        return colors;
+    }
+
+    public int[] getDrawIndexBuffer() {
+        return drawIndices;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+    }
+
+    void build(RenderList list, Rect viewport) {
+        long start = System.nanoTime();
+
+        Arrays.fill(nodes, 0, size, null);
+        size = 0;
+        stateCount = 0;
+        stateTable.clear();
+
+        int n = list.getSize();
+        ensureCapacity(n);
+
+        for (int i = 0; i < n; i++) {
+            add(list.get(i));
+        }
+
+        unsortedBatchCount = countStateRuns();
+        assignLayers(viewport);
+        sort();
+        buildBatches();
+
+        buildTimeNanos = System.nanoTime() - start;
+    }
+
+    private void add(Node node) {
+        int i = size++;
+        nodes[i] = node;
+
+        Matrix2D m = node.getGlobalTransform(scratchMatrix);
+        int t = i * TRANSFORM_STRIDE;
+        transforms[t] = m.a;
+        transforms[t + 1] = m.b;
+        transforms[t + 2] = m.c;
+        transforms[t + 3] = m.d;
+        transforms[t + 4] = m.tx;
+        transforms[t + 5] = m.ty;
+
+        int textureId = textureIdOf(node);
+        textureIds[i] = textureId;
+
+        ShaderProgram shaderProgram = node.getShaderProgram();
+        int shaderId = shaderProgram != null ? shaderProgram.getId() : 0;
+        shaderIds[i] = shaderId;
+
+        int rgb = 0xFFFFFF;
+        if (node instanceof Colored colored && colored.getColor() != null) {
+            rgb = colored.getColor().getValue() & 0xFFFFFF;
+        }
+        int alpha = Math.round(Math.max(0f, Math.min(1f, node.getGlobalAlpha())) * 255f);
+        colors[i] = alpha << 24 | rgb;
+
+        drawIndices[i] = node.getGlobalZOrderIndex();
+        states[i] = stateOf(shaderId, textureId);
+    }
+
+    /**
+     * Id of the texture the node draws from, or 0 if it draws untextured geometry.
+     */
+    private static int textureIdOf(Node node) {
+        Texture texture = null;
+        if (node instanceof Sprite sprite) {
+            TextureRegion region = sprite.getTextureRegion();
+            if (region != null) texture = region.getTexture();
+        } else if (node instanceof Textured textured) {
+            TextureRegion region = textured.getTextureRegion();
+            if (region != null) texture = region.getTexture();
+        } else if (node instanceof BitmapText bitmapText) {
+            Sprite cachedSprite = bitmapText.isCacheAsSprite() ? bitmapText.cachedSprite() : null;
+            if (cachedSprite != null && cachedSprite.getTextureRegion() != null) {
+                texture = cachedSprite.getTextureRegion().getTexture();
+            } else if (bitmapText.getBitmapFont() != null) {
+                texture = bitmapText.getBitmapFont().getTexture();
+            }
+        } else if (node instanceof Group group) {
+            texture = group.getCachedTexture();
+        }
+        return texture != null ? texture.getId() : 0;
+    }
+
+    private int stateOf(int shaderId, int textureId) {
+        long pair = (long) shaderId << 32 | (textureId & 0xFFFFFFFFL);
+        int state = stateTable.get(pair);
+        if (state == -1) {
+            state = stateCount++;
+            stateTable.put(pair, state);
+            if (state == statePairs.length) statePairs = Arrays.copyOf(statePairs, state * 2);
+            statePairs[state] = pair;
+        }
+        return state;
+    }
+
+    private void assignLayers(Rect viewport) {
+        prepareGrid(viewport);
+        entryCount = 0;
+        if (commandBounds.length < size * 4) commandBounds = new float[nodes.length * 4];
+
+        for (int i = 0; i < size; i++) {
+            Rect b = nodes[i].getGlobalBounds(scratchRect);
+            int o = i * 4;
+
+            int minCol = 0, maxCol = gridColumns - 1, minRow = 0, maxRow = gridRows - 1;
+            if (b.isEmpty()) {
+                // Unknown extent: treat the command as overlapping everything
+                commandBounds[o] = Float.NEGATIVE_INFINITY;
+                commandBounds[o + 1] = Float.NEGATIVE_INFINITY;
+                commandBounds[o + 2] = Float.POSITIVE_INFINITY;
+                commandBounds[o + 3] = Float.POSITIVE_INFINITY;
+            } else {
+                commandBounds[o] = b.x;
+                commandBounds[o + 1] = b.y;
+                commandBounds[o + 2] = b.getRight();
+                commandBounds[o + 3] = b.getBottom();
+                minCol = clamp((int) Math.floor((b.x - viewport.x) / GRID_CELL_SIZE), gridColumns);
+                maxCol = clamp((int) Math.floor((b.getRight() - viewport.x) / GRID_CELL_SIZE), gridColumns);
+                minRow = clamp((int) Math.floor((b.y - viewport.y) / GRID_CELL_SIZE), gridRows);
+                maxRow = clamp((int) Math.floor((b.getBottom() - viewport.y) / GRID_CELL_SIZE), gridRows);
+            }
+
+            int state = states[i];
+            int layer = 0;
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int col = minCol; col <= maxCol; col++) {
+                    int cell = row * gridColumns + col;
+                    if (cellStamps[cell] != gridStamp) continue;
+                    int required = requiredLayer(cell, i, state);
+                    if (required > layer) layer = required;
+                }
+            }
+            layers[i] = layer;
+
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int col = minCol; col <= maxCol; col++) {
+                    addToCell(row * gridColumns + col, i, layer, state);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lowest layer command {@code i} can take given the earlier commands in the cell: level
+     * with overlapping commands of the same state, above those of another state. Crowded cells
+     * fall back to the cell summary, which assumes everything in the cell overlaps.
+     */
+    private int requiredLayer(int cell, int i, int state) {
+        if (cellCounts[cell] > MAX_CELL_SCAN) {
+            return cellStates[cell] == state ? cellLayers[cell] : cellLayers[cell] + 1;
+        }
+
+        int required = 0;
+        for (int e = cellHeads[cell]; e != -1; e = entryNext[e]) {
+            int j = entryCommands[e];
+            if (overlaps(i, j)) {
+                int r = states[j] == state ? layers[j] : layers[j] + 1;
+                if (r > required) required = r;
+            }
+        }
+        return required;
+    }
+
+    private boolean overlaps(int i, int j) {
+        int a = i * 4, b = j * 4;
+        return commandBounds[a] < commandBounds[b + 2] && commandBounds[b] < commandBounds[a + 2]
+                && commandBounds[a + 1] < commandBounds[b + 3] && commandBounds[b + 1] < commandBounds[a + 3];
+    }
+
+    private void addToCell(int cell, int command, int layer, int state) {
+        if (cellStamps[cell] != gridStamp) {
+            cellStamps[cell] = gridStamp;
+            cellHeads[cell] = -1;
+            cellCounts[cell] = 0;
+            cellLayers[cell] = layer;
+            cellStates[cell] = state;
+        } else if (layer > cellLayers[cell]) {
+            cellLayers[cell] = layer;
+            cellStates[cell] = state;
+        } else if (layer == cellLayers[cell] && cellStates[cell] != state) {
+            cellStates[cell] = MIXED_STATE;
+        }
+
+        if (++cellCounts[cell] > MAX_CELL_SCAN) return;
+
+        if (entryCount == entryCommands.length) {
+            entryCommands = Arrays.copyOf(entryCommands, entryCount * 2);
+            entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+        }
+        entryCommands[entryCount] = command;
+        entryNext[entryCount] = cellHeads[cell];
+        cellHeads[cell] = entryCount++;
+    }
+
+    private void prepareGrid(Rect viewport) {
+        gridColumns = Math.max(1, (int) Math.ceil(viewport.width / GRID_CELL_SIZE));
+        gridRows = Math.max(1, (int) Math.ceil(viewport.height / GRID_CELL_SIZE));
+        int cells = gridColumns * gridRows;
+        if (cellStamps.length < cells) {
+            cellLayers = new int[cells];
+            cellStates = new int[cells];
+            cellStamps = new int[cells];
+            cellHeads = new int[cells];
+            cellCounts = new int[cells];
+            gridStamp = 0;
+        }
+        if (++gridStamp == 0) {
+            Arrays.fill(cellStamps, 0);
+            gridStamp = 1;
+        }
+    }
+
+    private static int clamp(int value, int count) {
+        return value < 0 ? 0 : Math.min(value, count - 1);
+    }
+
+    private void sort() {
+        if (size < 2 || size > MAX_SORTED_COMMANDS || stateCount >= 1 << STATE_BITS) return;
+
+        // Rank the distinct states by (shader, texture) so batches come out in a stable order
+        if (stateRanks.length < stateCount) stateRanks = new int[statePairs.length];
+        long[] rankKeys = sortKeys;
+        for (int s = 0; s < stateCount; s++) {
+            rankKeys[s] = statePairs[s];
+        }
+        Arrays.sort(rankKeys, 0, stateCount);
+        for (int r = 0; r < stateCount; r++) {
+            stateRanks[stateTable.get(rankKeys[r])] = r;
+        }
+
+        boolean sorted = true;
+        for (int i = 0; i < size; i++) {
+            if (layers[i] > MAX_LAYER) return;
+            sortKeys[i] = (long) layers[i] << (STATE_BITS + INDEX_BITS)
+                    | (long) stateRanks[states[i]] << INDEX_BITS
+                    | i;
+            if (i > 0 && sortKeys[i] < sortKeys[i - 1]) sorted = false;
+        }
+        if (sorted) return;
+
+        Arrays.sort(sortKeys, 0, size);
+
+        int indexMask = MAX_SORTED_COMMANDS - 1;
+        for (int i = 0; i < size; i++) {
+            int from = (int) (sortKeys[i] & indexMask);
+            sortedNodes[i] = nodes[from];
+            System.arraycopy(transforms, from * TRANSFORM_STRIDE, sortedTransforms, i * TRANSFORM_STRIDE, TRANSFORM_STRIDE);
+        }
+        Node[] swapNodes = nodes;
+        nodes = sortedNodes;
+        sortedNodes = swapNodes;
+        Arrays.fill(sortedNodes, 0, size, null);
+        float[] swapTransforms = transforms;
+        transforms = sortedTransforms;
+        sortedTransforms = swapTransforms;
+
+        textureIds = permute(textureIds, indexMask);
+        shaderIds = permute(shaderIds, indexMask);
+        colors = permute(colors, indexMask);
+        drawIndices = permute(drawIndices, indexMask);
+        layers = permute(layers, indexMask);
+        states = permute(states, indexMask);
+    }
+
+    private int[] permute(int[] values, int indexMask) {
+        int[] out = sortedInts;
+        for (int i = 0; i < size; i++) {
+            out[i] = values[(int) (sortKeys[i] & indexMask)];
+        }
+        sortedInts = values;
+        return out;
+    }
+
+    private int countStateRuns() {
+        int runs = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || states[i] != states[i - 1]) runs++;
+        }
+        return runs;
+    }
+
+    private void buildBatches() {
+        batchCount = 0;
+
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || states[i] != states[i - 1]) {
+                if (batchCount == batchStarts.length) batchStarts = Arrays.copyOf(batchStarts, batchCount * 2);
+                batchStarts[batchCount++] = i;
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (nodes.length >= capacity) return;
+        int newCapacity = Math.max(capacity, nodes.length + (nodes.length >> 1));
+        nodes = Arrays.copyOf(nodes, newCapacity);
+        sortedNodes = new Node[newCapacity];
+        transforms = Arrays.copyOf(transforms, newCapacity * TRANSFORM_STRIDE);
+        sortedTransforms = new float[newCapacity * TRANSFORM_STRIDE];
+        textureIds = Arrays.copyOf(textureIds, newCapacity);
+        shaderIds = Arrays.copyOf(shaderIds, newCapacity);
+        colors = Arrays.copyOf(colors, newCapacity);
+        drawIndices = Arrays.copyOf(drawIndices, newCapacity);
+        layers = Arrays.copyOf(layers, newCapacity);
+        states = Arrays.copyOf(states, newCapacity);
+        sortKeys = Arrays.copyOf(sortKeys, newCapacity);
+        sortedInts = new int[newCapacity];
+    }
+
+    /**
+     * Open-addressing map from a packed (shader, texture) pair to its state number.
+     */
+    private static final class StateTable {
+        private long[] keys = new long[32];
+        private int[] values = new int[32];
+        private boolean[] used = new boolean[32];
+        private int count;
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; used[i]; i = (i + 1) & mask) {
+                if (keys[i] == key) return values[i];
+            }
+            return -1;
+        }
+
+        void put(long key, int value) {
+            if ((count + 1) * 2 > keys.length) grow();
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (used[i] && keys[i] != key) i = (i + 1) & mask;
+            if (!used[i]) count++;
+            used[i] = true;
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        void clear() {
+            if (count == 0) return;
+            Arrays.fill(used, false);
+            count = 0;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            boolean[] oldUsed = used;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            used = new boolean[oldKeys.length * 2];
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) put(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
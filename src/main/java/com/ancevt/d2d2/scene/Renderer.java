@@ -18,6 +18,10 @@
 
 package com.ancevt.d2d2.scene;
 
+/**
+ * Rendering backend. Implementations are expected to draw {@link Stage#getRenderQueue()}, which
+ * is already culled and batched, rather than walking the scene graph themselves.
+ */
 public interface Renderer {
 
     void init(long windowId);
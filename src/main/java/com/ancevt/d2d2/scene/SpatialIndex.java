@@ -0,0 +1,479 @@
+/**
+ * Copyright (C) 2025 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ancevt.d2d2.scene;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform grid over the world-space bounds of opted-in nodes, answering "which nodes touch this
+ * area" without traversing the scene graph.
+ * <p>
+ * A node is registered in every cell its global bounds overlap; nodes spanning more than
+ * {@link #MAX_CELLS_PER_ENTRY} cells are kept in a separate list that every query checks.
+ * Transform and size changes only mark the affected entries dirty, and dirty entries are
+ * re-bucketed lazily by the next query. Queries deduplicate their results with a stamp instead
+ * of a set, and write into caller-supplied lists so they do not allocate.
+ * <p>
+ * A node can be tracked by several indices at once. The stage provides a shared index via
+ * {@link Stage#getSpatialIndex()} that nodes opt into explicitly, and any {@link BasicGroup} can
+ * keep its children in an index with {@link BasicGroup#setChildSpatialIndex(SpatialIndex)}.
+ * Indices created with a {@link BoundsFunction} track some other world-space rectangle per node
+ * instead of its global bounds, e.g. a hit area.
+ */
+public final class SpatialIndex {
+
+    public static final float DEFAULT_CELL_SIZE = 128f;
+
+    static final int MAX_CELLS_PER_ENTRY = 64;
+
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    @Getter
+    private final float cellSize;
+    private final float inverseCellSize;
+    private final BoundsFunction boundsFunction;
+
+    private Cell[] cells = new Cell[64];
+    private int cellCount;
+
+    private Entry[] oversized = NO_ENTRIES;
+    private int oversizedCount;
+
+    private Entry[] dirty = new Entry[16];
+    private int dirtyCount;
+
+    @Getter
+    private int size;
+    private int queryStamp;
+
+    private final Rect scratch = new Rect();
+
+    public SpatialIndex() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    public SpatialIndex(float cellSize) {
+        this(cellSize, Node::getGlobalBounds);
+    }
+
+    public SpatialIndex(float cellSize, BoundsFunction boundsFunction) {
+        if (!(cellSize > 0f)) throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1f / cellSize;
+        this.boundsFunction = boundsFunction;
+    }
+
+    /**
+     * Starts tracking the node. Does nothing if the node is already tracked by this index.
+     *
+     * @throws IllegalArgumentException if the node is not an {@link AbstractNode}, whose
+     *                                  transform and bounds changes the index relies on
+     */
+    public void add(Node node) {
+        if (!(node instanceof AbstractNode n)) {
+            throw new IllegalArgumentException("Only AbstractNode instances can be indexed: " + node);
+        }
+        if (find(n) != null) return;
+
+        Entry entry = new Entry(this, n);
+        entry.nextForNode = n.spatialEntry;
+        n.spatialEntry = entry;
+        size++;
+        entry.markDirty();
+    }
+
+    public void remove(Node node) {
+        Entry entry = node instanceof AbstractNode n ? find(n) : null;
+        if (entry == null) return;
+
+        unbucket(entry);
+        detach(entry);
+        size--;
+    }
+
+    public boolean contains(Node node) {
+        return node instanceof AbstractNode n && find(n) != null;
+    }
+
+    /**
+     * Marks the node's tracked rectangle as changed. Transform and size changes are picked up
+     * automatically; this is for changes only a custom {@link BoundsFunction} knows about.
+     */
+    public void invalidate(Node node) {
+        Entry entry = node instanceof AbstractNode n ? find(n) : null;
+        if (entry != null) entry.markDirty();
+    }
+
+    private Entry find(AbstractNode node) {
+        for (Entry e = node.spatialEntry; e != null; e = e.nextForNode) {
+            if (e.index == this) return e;
+        }
+        return null;
+    }
+
+    static void markDirty(Entry entries) {
+        for (Entry e = entries; e != null; e = e.nextForNode) e.markDirty();
+    }
+
+    /**
+     * Re-buckets every entry whose node moved or resized since the last update. Queries call
+     * this themselves; calling it explicitly moves the cost to a convenient point of the frame.
+     */
+    public void update() {
+        for (int i = 0; i < dirtyCount; i++) {
+            Entry entry = dirty[i];
+            dirty[i] = null;
+            entry.dirty = false;
+            if (!entry.removed) rebucket(entry);
+        }
+        dirtyCount = 0;
+    }
+
+    /**
+     * Collects the nodes whose global bounds intersect the given world-space rectangle.
+     */
+    public List<Node> query(float x, float y, float width, float height, List<Node> out) {
+        update();
+        gather(x, y, x + width, y + height, false, 0f, 0f, 0f, out);
+        return out;
+    }
+
+    public List<Node> query(Rect area, List<Node> out) {
+        return query(area.x, area.y, area.width, area.height, out);
+    }
+
+    /**
+     * Collects the nodes whose global bounds contain the given world-space point.
+     */
+    public List<Node> queryPoint(float x, float y, List<Node> out) {
+        update();
+        Cell c = findCell(cell(x), cell(y));
+        if (c != null) {
+            for (int i = 0; i < c.size; i++) {
+                Entry e = c.entries[i];
+                if (e.bounds.contains(x, y)) out.add(e.node);
+            }
+        }
+        for (int i = 0; i < oversizedCount; i++) {
+            Entry e = oversized[i];
+            if (e.bounds.contains(x, y)) out.add(e.node);
+        }
+        return out;
+    }
+
+    /**
+     * Collects the nodes whose global bounds intersect the circle with the given world-space
+     * center and radius.
+     */
+    public List<Node> queryRadius(float centerX, float centerY, float radius, List<Node> out) {
+        update();
+        gather(centerX - radius, centerY - radius, centerX + radius, centerY + radius,
+                true, centerX, centerY, radius * radius, out);
+        return out;
+    }
+
+    private void gather(float left, float top, float right, float bottom,
+                        boolean circle, float centerX, float centerY, float radiusSquared,
+                        List<Node> out) {
+        int stamp = nextStamp();
+        int minCx = cell(left), maxCx = cell(right);
+        int minCy = cell(top), maxCy = cell(bottom);
+
+        if (((long) maxCx - minCx + 1) * ((long) maxCy - minCy + 1) > cells.length) {
+            // The area spans more cells than exist, walking the table is cheaper
+            for (Cell c : cells) {
+                if (c != null && c.cx >= minCx && c.cx <= maxCx && c.cy >= minCy && c.cy <= maxCy) {
+                    gather(c.entries, c.size, stamp, left, top, right, bottom, circle, centerX, centerY, radiusSquared, out);
+                }
+            }
+        } else {
+            for (int cy = minCy; cy <= maxCy; cy++) {
+                for (int cx = minCx; cx <= maxCx; cx++) {
+                    Cell c = findCell(cx, cy);
+                    if (c != null) {
+                        gather(c.entries, c.size, stamp, left, top, right, bottom, circle, centerX, centerY, radiusSquared, out);
+                    }
+                }
+            }
+        }
+
+        gather(oversized, oversizedCount, stamp, left, top, right, bottom, circle, centerX, centerY, radiusSquared, out);
+    }
+
+    private static void gather(Entry[] entries, int count, int stamp,
+                               float left, float top, float right, float bottom,
+                               boolean circle, float centerX, float centerY, float radiusSquared,
+                               List<Node> out) {
+        for (int i = 0; i < count; i++) {
+            Entry e = entries[i];
+            if (e.stamp == stamp) continue;
+            boolean hit = circle
+                    ? e.distanceSquared(centerX, centerY) <= radiusSquared
+                    : e.intersects(left, top, right, bottom);
+            if (hit) {
+                e.stamp = stamp;
+                out.add(e.node);
+            }
+        }
+    }
+
+    /**
+     * Stops tracking all nodes and releases the grid cells.
+     */
+    public void clear() {
+        for (int i = 0; i < cells.length; i++) {
+            Cell c = cells[i];
+            if (c == null) continue;
+            for (int j = 0; j < c.size; j++) detach(c.entries[j]);
+            cells[i] = null;
+        }
+        for (int i = 0; i < oversizedCount; i++) detach(oversized[i]);
+        for (int i = 0; i < dirtyCount; i++) detach(dirty[i]);
+
+        Arrays.fill(dirty, 0, dirtyCount, null);
+        oversized = NO_ENTRIES;
+        oversizedCount = 0;
+        dirtyCount = 0;
+        cellCount = 0;
+        size = 0;
+    }
+
+    private static void detach(Entry e) {
+        AbstractNode node = e.node;
+        if (node.spatialEntry == e) {
+            node.spatialEntry = e.nextForNode;
+        } else {
+            for (Entry prev = node.spatialEntry; prev != null; prev = prev.nextForNode) {
+                if (prev.nextForNode == e) {
+                    prev.nextForNode = e.nextForNode;
+                    break;
+                }
+            }
+        }
+        e.nextForNode = null;
+        e.removed = true;
+        e.bucketed = false;
+    }
+
+    private int nextStamp() {
+        if (++queryStamp == 0) {
+            // Wrapped around: stale stamps could collide with the new ones
+            resetStamps();
+            queryStamp = 1;
+        }
+        return queryStamp;
+    }
+
+    private void resetStamps() {
+        for (Cell c : cells) {
+            if (c == null) continue;
+            for (int i = 0; i < c.size; i++) c.entries[i].stamp = 0;
+        }
+        for (int i = 0; i < oversizedCount; i++) oversized[i].stamp = 0;
+    }
+
+    private int cell(float v) {
+        return (int) Math.floor(v * inverseCellSize);
+    }
+
+    private void rebucket(Entry entry) {
+        Rect b = boundsFunction.getBounds(entry.node, scratch);
+
+        int minCx = cell(b.x), maxCx = cell(b.getRight());
+        int minCy = cell(b.y), maxCy = cell(b.getBottom());
+        boolean oversize = ((long) maxCx - minCx + 1) * ((long) maxCy - minCy + 1) > MAX_CELLS_PER_ENTRY;
+
+        entry.bounds.set(b);
+
+        if (entry.bucketed && entry.oversize == oversize
+                && (oversize || (entry.minCx == minCx && entry.maxCx == maxCx && entry.minCy == minCy && entry.maxCy == maxCy))) {
+            return;
+        }
+
+        unbucket(entry);
+
+        entry.minCx = minCx;
+        entry.maxCx = maxCx;
+        entry.minCy = minCy;
+        entry.maxCy = maxCy;
+        entry.oversize = oversize;
+        entry.bucketed = true;
+
+        if (oversize) {
+            if (oversizedCount == oversized.length) {
+                oversized = Arrays.copyOf(oversized, Math.max(4, oversizedCount * 2));
+            }
+            oversized[oversizedCount++] = entry;
+            return;
+        }
+
+        for (int cy = minCy; cy <= maxCy; cy++) {
+            for (int cx = minCx; cx <= maxCx; cx++) {
+                obtainCell(cx, cy).add(entry);
+            }
+        }
+    }
+
+    private void unbucket(Entry entry) {
+        if (!entry.bucketed) return;
+        entry.bucketed = false;
+
+        if (entry.oversize) {
+            for (int i = 0; i < oversizedCount; i++) {
+                if (oversized[i] == entry) {
+                    oversized[i] = oversized[--oversizedCount];
+                    oversized[oversizedCount] = null;
+                    return;
+                }
+            }
+            return;
+        }
+
+        for (int cy = entry.minCy; cy <= entry.maxCy; cy++) {
+            for (int cx = entry.minCx; cx <= entry.maxCx; cx++) {
+                Cell c = findCell(cx, cy);
+                if (c != null) c.remove(entry);
+            }
+        }
+    }
+
+    private void enqueueDirty(Entry entry) {
+        if (dirtyCount == dirty.length) {
+            dirty = Arrays.copyOf(dirty, dirtyCount * 2);
+        }
+        dirty[dirtyCount++] = entry;
+    }
+
+    // Open-addressing table of cells keyed by their grid coordinates. Cells are never removed
+    // individually: an emptied cell stays in place and is reused when something moves back.
+
+    private static int hash(int cx, int cy) {
+        int h = cx * 0x9E3779B1 + cy * 0x85EBCA77;
+        return h ^ (h >>> 15);
+    }
+
+    private Cell findCell(int cx, int cy) {
+        int mask = cells.length - 1;
+        for (int i = hash(cx, cy) & mask; ; i = (i + 1) & mask) {
+            Cell c = cells[i];
+            if (c == null) return null;
+            if (c.cx == cx && c.cy == cy) return c;
+        }
+    }
+
+    private Cell obtainCell(int cx, int cy) {
+        int mask = cells.length - 1;
+        int i = hash(cx, cy) & mask;
+        for (; ; i = (i + 1) & mask) {
+            Cell c = cells[i];
+            if (c == null) break;
+            if (c.cx == cx && c.cy == cy) return c;
+        }
+
+        Cell c = new Cell(cx, cy);
+        cells[i] = c;
+        if (++cellCount * 2 > cells.length) growCells();
+        return c;
+    }
+
+    private void growCells() {
+        Cell[] old = cells;
+        cells = new Cell[old.length * 2];
+        int mask = cells.length - 1;
+        for (Cell c : old) {
+            if (c == null) continue;
+            int i = hash(c.cx, c.cy) & mask;
+            while (cells[i] != null) i = (i + 1) & mask;
+            cells[i] = c;
+        }
+    }
+
+    static final class Entry {
+        final SpatialIndex index;
+        final AbstractNode node;
+        final Rect bounds = new Rect();
+        int minCx, minCy, maxCx, maxCy;
+        boolean bucketed;
+        boolean oversize;
+        boolean dirty;
+        boolean removed;
+        int stamp;
+        Entry nextForNode;
+
+        Entry(SpatialIndex index, AbstractNode node) {
+            this.index = index;
+            this.node = node;
+        }
+
+        void markDirty() {
+            if (dirty) return;
+            dirty = true;
+            index.enqueueDirty(this);
+        }
+
+        boolean intersects(float left, float top, float right, float bottom) {
+            return bounds.x <= right && bounds.getRight() >= left && bounds.y <= bottom && bounds.getBottom() >= top;
+        }
+
+        float distanceSquared(float px, float py) {
+            float dx = Math.max(bounds.x - px, Math.max(0f, px - bounds.getRight()));
+            float dy = Math.max(bounds.y - py, Math.max(0f, py - bounds.getBottom()));
+            return dx * dx + dy * dy;
+        }
+    }
+
+    private static final class Cell {
+        final int cx;
+        final int cy;
+        Entry[] entries = new Entry[4];
+        int size;
+
+        Cell(int cx, int cy) {
+            this.cx = cx;
+            this.cy = cy;
+        }
+
+        void add(Entry entry) {
+            if (size == entries.length) entries = Arrays.copyOf(entries, size * 2);
+            entries[size++] = entry;
+        }
+
+        void remove(Entry entry) {
+            for (int i = 0; i < size; i++) {
+                if (entries[i] == entry) {
+                    entries[i] = entries[--size];
+                    entries[size] = null;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the world-space rectangle an index tracks for a node.
+     */
+    @FunctionalInterface
+    public interface BoundsFunction {
+
+        Rect getBounds(Node node, Rect out);
+    }
+}
@@ -18,16 +18,28 @@
 
 package com.ancevt.d2d2.scene;
 
+import com.ancevt.d2d2.D2D2;
 import com.ancevt.d2d2.event.CommonEvent;
 import com.ancevt.d2d2.event.InputEvent;
 import com.ancevt.d2d2.event.NodeEvent;
 import com.ancevt.d2d2.event.StageEvent;
+import com.ancevt.d2d2.event.core.Event;
+import com.ancevt.d2d2.event.core.EventDispatcher;
 import com.ancevt.d2d2.event.core.EventLink;
 import com.ancevt.d2d2.event.core.EventListener;
+import com.ancevt.d2d2.event.core.EventPool;
+import com.ancevt.d2d2.input.InputState;
+import com.ancevt.d2d2.util.MpscQueue;
 import lombok.Getter;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
 public class Stage extends BasicGroup implements Resizable {
     private static final Color DEFAULT_BACKGROUND_COLOR = Color.BLACK;
+    private static final int POSTED_TASK_CAPACITY = 4096;
 
     @Getter
     private float width;
@@ -38,8 +50,76 @@ public class Stage extends BasicGroup implements Resizable {
     @Getter
     private Color backgroundColor;
 
+    /**
+     * Number of frames started so far, incremented on each {@link StageEvent.PreFrame}.
+     */
+    @Getter
+    private long frameNumber;
+
+    /**
+     * How many nodes had their cached global state recomputed during the previous frame.
+     */
+    @Getter
+    private int worldStateUpdateCount;
+
+    int worldStateUpdateCounter;
+
+    private SpatialIndex spatialIndex;
+
+    private final MpscQueue<Runnable> postedTasks = new MpscQueue<>(POSTED_TASK_CAPACITY);
+    private final AtomicLong rejectedPostCount = new AtomicLong();
+
+    /**
+     * Maximum number of posted tasks run per frame; the rest wait for the following frames.
+     */
+    @Getter
+    private int postedTaskBudget = Integer.MAX_VALUE;
+
+    /**
+     * How many posted tasks ran at the start of the current frame.
+     */
+    @Getter
+    private int postedTasksRun;
+
+    /**
+     * Whether high-frequency input (pointer motion, wheel) and resize events are merged into at
+     * most one dispatch per frame.
+     */
+    @Getter
+    private boolean eventCoalescingEnabled;
+    private boolean resizePending;
+
+    /**
+     * Per-tick callbacks, run when {@link StageEvent.Tick} is dispatched on the stage.
+     */
+    @Getter
+    private final UpdateScheduler updateScheduler = new UpdateScheduler();
+
+    /**
+     * Keyboard and mouse state as of the start of the current frame.
+     */
+    @Getter
+    private final InputState inputState = new InputState();
+
+    private final RenderList renderList = new RenderList();
+    private final Rect cullingViewport = new Rect();
+    private final Rect cullingBoundsScratch = new Rect();
+    private boolean customCullingViewport;
+    private long renderListFrame = -1;
+
+    private final List<BasicGroup> cachingGroups = new ArrayList<>();
+    private BasicGroup[] cachesToRefresh = new BasicGroup[8];
+    private int[] cacheDepths = new int[8];
+
+    // Bumped whenever the structure, z-indices or visibility of the scene change
+    long drawOrderVersion;
+    private long numberedDrawOrderVersion = -1;
+    private int drawIndex;
+
+    private final RenderQueue renderQueue = new RenderQueue();
+    private long renderQueueFrame = -1;
+
     public Stage() {
-        setName("_" + getClass().getSimpleName() + getNodeId());
         setBackgroundColor(DEFAULT_BACKGROUND_COLOR);
     }
 
@@ -64,42 +144,336 @@ public class Stage extends BasicGroup implements Resizable {
     public void setSize(float width, float height) {
         this.width = width;
         this.height = height;
-        dispatchEvent(CommonEvent.Resize.create(width, height));
+        dispatchResize();
     }
 
     @Override
     public void setWidth(float width) {
         this.width = width;
-        dispatchEvent(CommonEvent.Resize.create(width, height));
+        dispatchResize();
     }
 
     @Override
     public void setHeight(float height) {
         this.height = height;
-        dispatchEvent(CommonEvent.Resize.create(width, height));
+        dispatchResize();
     }
 
-    static void dispatchAddToStage(Node node) {
-        if (node.isOnScreen()) {
-            node.dispatchEvent(NodeEvent.AddToScene.create());
-            if (node instanceof Group group) {
-                for (int i = 0; i < group.getNumChildren(); i++) {
-                    dispatchAddToStage(group.getChild(i));
+    private void dispatchResize() {
+        if (eventCoalescingEnabled) {
+            // The size is current right away, listeners hear about it once at the next frame
+            resizePending = true;
+        } else {
+            dispatchEvent(CommonEvent.Resize.create(width, height));
+        }
+    }
+
+    /**
+     * Enables merging of high-frequency events: stage resizes are reported once per frame, and
+     * the interactive manager merges pointer motion and wheel input (see
+     * {@link com.ancevt.d2d2.scene.interactive.InteractiveManager}).
+     */
+    public void setEventCoalescingEnabled(boolean eventCoalescingEnabled) {
+        this.eventCoalescingEnabled = eventCoalescingEnabled;
+        if (!eventCoalescingEnabled && resizePending) {
+            resizePending = false;
+            dispatchEvent(CommonEvent.Resize.create(width, height));
+        }
+    }
+
+    @Override
+    public <T extends Event> void dispatchEvent(T event) {
+        if (event instanceof StageEvent.PreFrame) {
+            beginFrame();
+        } else if (event instanceof StageEvent.Tick) {
+            updateScheduler.run(UpdatePhase.INPUT);
+            updateScheduler.run(UpdatePhase.UPDATE);
+            super.dispatchEvent(event);
+            updateScheduler.run(UpdatePhase.LATE_UPDATE);
+            return;
+        } else if (event instanceof InputEvent.KeyDown keyDown) {
+            inputState.keyDown(keyDown.getKeyCode());
+        } else if (event instanceof InputEvent.KeyUp keyUp) {
+            inputState.keyUp(keyUp.getKeyCode());
+        } else if (event instanceof InputEvent.MouseWheel mouseWheel) {
+            inputState.mouseWheel(mouseWheel.getDelta());
+        }
+        super.dispatchEvent(event);
+        if (event instanceof StageEvent.PostFrame) {
+            // Nothing may hold on to the events created during the frame past its end
+            EventPool.releaseFrameEvents();
+        }
+    }
+
+    private void beginFrame() {
+        EventPool.markFrameThread();
+        frameNumber++;
+        inputState.beginFrame();
+        worldStateUpdateCount = worldStateUpdateCounter;
+        worldStateUpdateCounter = 0;
+        drainPostedTasks();
+
+        if (resizePending) {
+            resizePending = false;
+            dispatchEvent(CommonEvent.Resize.create(width, height));
+        }
+    }
+
+    /**
+     * Queues a task to run on the render thread at the start of the next frame. Safe to call
+     * from any thread and never blocks.
+     *
+     * @return {@code false} if the queue is full and the task was dropped
+     */
+    public boolean post(Runnable task) {
+        if (postedTasks.offer(task)) return true;
+        rejectedPostCount.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Queues an event to be dispatched on the given target at the start of the next frame.
+     * The stage takes ownership of the event and returns it to its pool after dispatching.
+     * Events obtained on a background thread are not frame-scoped, so they are recycled too.
+     *
+     * @return {@code false} if the queue is full and the event was dropped
+     */
+    public boolean postEvent(EventDispatcher target, Event event) {
+        return post(() -> {
+            try {
+                target.dispatchEvent(event);
+            } finally {
+                EventPool.release(event);
+            }
+        });
+    }
+
+    public void setPostedTaskBudget(int postedTaskBudget) {
+        if (postedTaskBudget < 1) throw new IllegalArgumentException("Budget must be positive: " + postedTaskBudget);
+        this.postedTaskBudget = postedTaskBudget;
+    }
+
+    /**
+     * Approximate number of tasks waiting to run.
+     */
+    public int getPostedQueueDepth() {
+        return postedTasks.size();
+    }
+
+    public int getPostedQueueCapacity() {
+        return postedTasks.capacity();
+    }
+
+    /**
+     * Total number of tasks and events dropped because the queue was full.
+     */
+    public long getRejectedPostCount() {
+        return rejectedPostCount.get();
+    }
+
+    private void drainPostedTasks() {
+        int run = 0;
+        Runnable task;
+        while (run < postedTaskBudget && (task = postedTasks.poll()) != null) {
+            run++;
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                if (D2D2.log != null) {
+                    D2D2.log.error(Stage.class, "Posted task failed", e);
                 }
             }
         }
+        postedTasksRun = run;
+    }
+
+    /**
+     * Returns the stage-wide spatial index, created on first use. Nodes are not tracked
+     * automatically; opt them in with {@link SpatialIndex#add(Node)}.
+     */
+    public SpatialIndex getSpatialIndex() {
+        if (spatialIndex == null) {
+            spatialIndex = new SpatialIndex();
+        }
+        return spatialIndex;
+    }
+
+    /**
+     * Returns the nodes to draw this frame, culled against the culling viewport. The list is
+     * built by the first call in each frame and reused by the following ones; call
+     * {@link #invalidateRenderList()} to force a rebuild after changing the scene mid-frame.
+     */
+    public RenderList getRenderList() {
+        if (renderListFrame != frameNumber) {
+            if (!customCullingViewport) cullingViewport.set(0f, 0f, width, height);
+            validateDrawIndices();
+            refreshCachedTextures();
+            renderList.build(this, cullingViewport);
+            renderListFrame = frameNumber;
+        }
+        return renderList;
+    }
+
+    /**
+     * Returns this frame's draw commands, flattened from {@link #getRenderList()} and sorted
+     * into batches. Built by the first call in each frame like the render list.
+     */
+    public RenderQueue getRenderQueue() {
+        RenderList list = getRenderList();
+        if (renderQueueFrame != frameNumber) {
+            renderQueue.build(list, cullingViewport);
+            renderQueueFrame = frameNumber;
+        }
+        return renderQueue;
+    }
+
+    /**
+     * Gives every visible node on stage its draw index ({@link Node#getGlobalZOrderIndex()}),
+     * visiting siblings in z-index order. The traversal only runs after the structure,
+     * z-indices or visibility of the scene changed, and builds nothing else, so picking can
+     * keep the indices current mid-frame without building the frame's render list.
+     */
+    public void validateDrawIndices() {
+        if (numberedDrawOrderVersion == drawOrderVersion) return;
+        drawIndex = 0;
+        numberChildren(this);
+        numberedDrawOrderVersion = drawOrderVersion;
+    }
+
+    private void numberChildren(Group group) {
+        BasicGroup basicGroup = group instanceof BasicGroup g ? g : null;
+        for (int i = 0; i < group.getNumChildren(); i++) {
+            Node child = basicGroup != null ? basicGroup.getChildInDrawOrder(i) : group.getChild(i);
+            if (!child.isVisible()) continue;
+            child.setGlobalZOrderIndex(++drawIndex);
+            if (child instanceof Group childGroup) numberChildren(childGroup);
+        }
+    }
+
+    public void invalidateRenderList() {
+        renderListFrame = -1;
+        renderQueueFrame = -1;
+    }
+
+    /**
+     * Sets the rectangle, in stage coordinates, that nodes are culled against, e.g. the area
+     * seen by a camera. Passing {@code null} restores the default, the stage rectangle.
+     */
+    public void setCullingViewport(Rect viewport) {
+        customCullingViewport = viewport != null;
+        if (customCullingViewport) cullingViewport.set(viewport);
+        invalidateRenderList();
+    }
+
+    public Rect getCullingViewport(Rect out) {
+        if (!customCullingViewport) cullingViewport.set(0f, 0f, width, height);
+        return out.set(cullingViewport);
+    }
+
+    /**
+     * Marks a freshly attached subtree as on stage and fires {@code AddToScene} for each of its
+     * nodes in a single pass. Whether a node is attached is decided from its parent's flag, so no
+     * node walks up to the root.
+     */
+    static void dispatchAddToStage(Node node) {
+        Group parent = node.getParent();
+        if (parent == null || !(parent instanceof Stage || parent.isOnScreen())) return;
+
+        if (node instanceof AbstractNode n) n.onStage = true;
+        if (node instanceof BasicGroup group && group.isCacheAsTexture()) {
+            group.invalidateCachedTexture();
+            D2D2.getStage().addCachingGroup(group);
+        }
+        node.dispatchEvent(NodeEvent.AddToScene.create());
+
+        if (node instanceof Group group) {
+            for (int i = 0; i < group.getNumChildren(); i++) {
+                dispatchAddToStage(group.getChild(i));
+            }
+        }
     }
 
+    /**
+     * Fires {@code RemoveFromScene} for each node of a subtree that is about to be detached, then
+     * clears its on-stage flag and closes its listener scope once the node and its descendants
+     * have been notified.
+     */
     static void dispatchRemoveFromStage(Node node) {
-        if (node.isOnScreen()) {
-            node.dispatchEvent(NodeEvent.RemoveFromScene.create());
+        if (!node.isOnScreen()) return;
 
-            if (node instanceof Group group) {
-                for (int i = 0; i < group.getNumChildren(); i++) {
-                    dispatchRemoveFromStage(group.getChild(i));
-                }
+        node.dispatchEvent(NodeEvent.RemoveFromScene.create());
+
+        if (node instanceof Group group) {
+            for (int i = 0; i < group.getNumChildren(); i++) {
+                dispatchRemoveFromStage(group.getChild(i));
+            }
+        }
+
+        if (node instanceof AbstractNode n) {
+            n.onStage = false;
+            n.closeListenerScope();
+        }
+        if (node instanceof BasicGroup group && group.isCacheAsTexture()) {
+            D2D2.getStage().removeCachingGroup(group);
+            group.dropCachedTexture();
+        }
+    }
+
+    /**
+     * Number of groups on stage that cache their subtree as a texture.
+     */
+    public int getCachingGroupCount() {
+        return cachingGroups.size();
+    }
+
+    void addCachingGroup(BasicGroup group) {
+        if (!cachingGroups.contains(group)) cachingGroups.add(group);
+    }
+
+    void removeCachingGroup(BasicGroup group) {
+        cachingGroups.remove(group);
+    }
+
+    /**
+     * Re-renders the stale cached textures of the groups that will be drawn, in a pass of its
+     * own before the render list traversal. Nested caching groups are rendered first, so that
+     * the groups containing them render their fresh textures. Groups that are hidden or culled
+     * stay stale until they are drawn.
+     */
+    private void refreshCachedTextures() {
+        int count = 0;
+        for (int i = 0; i < cachingGroups.size(); i++) {
+            BasicGroup group = cachingGroups.get(i);
+            if (!group.isCachedTextureDirty() || !group.isGloballyVisible() || isCulled(group)) continue;
+
+            if (count == cachesToRefresh.length) {
+                cachesToRefresh = Arrays.copyOf(cachesToRefresh, count * 2);
+                cacheDepths = Arrays.copyOf(cacheDepths, count * 2);
             }
+            int depth = 0;
+            for (Group p = group.getParent(); p != null; p = p.getParent()) depth++;
+
+            // Insertion sort, deepest first
+            int j = count++;
+            while (j > 0 && cacheDepths[j - 1] < depth) {
+                cachesToRefresh[j] = cachesToRefresh[j - 1];
+                cacheDepths[j] = cacheDepths[j - 1];
+                j--;
+            }
+            cachesToRefresh[j] = group;
+            cacheDepths[j] = depth;
         }
+
+        for (int i = 0; i < count; i++) {
+            cachesToRefresh[i].validateCachedTexture();
+            cachesToRefresh[i] = null;
+        }
+    }
+
+    private boolean isCulled(BasicGroup group) {
+        if (!renderList.isCullingEnabled()) return false;
+        Rect bounds = group.getGlobalBounds(cullingBoundsScratch);
+        return !bounds.isEmpty() && !bounds.intersects(cullingViewport) && !group.hasUnboundedContent();
     }
 
     public EventLink<CommonEvent.Start> onStart(EventListener<CommonEvent.Start> listener) {
@@ -110,6 +484,21 @@ public class Stage extends BasicGroup implements Resizable {
         return on(CommonEvent.Stop.class, listener);
     }
 
+    /**
+     * Shortcut for {@code getUpdateScheduler().add(updatable)}.
+     */
+    public void addUpdatable(Updatable updatable) {
+        updateScheduler.add(updatable);
+    }
+
+    public void addUpdatable(Updatable updatable, UpdatePhase phase, int priority) {
+        updateScheduler.add(updatable, phase, priority);
+    }
+
+    public boolean removeUpdatable(Updatable updatable) {
+        return updateScheduler.remove(updatable);
+    }
+
     public EventLink<StageEvent.Tick> onTick(EventListener<StageEvent.Tick> listener) {
         return on(StageEvent.Tick.class, listener);
     }
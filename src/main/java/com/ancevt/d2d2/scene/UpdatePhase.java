@@ -0,0 +1,41 @@
+/**
+ * Copyright (C) 2025 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ancevt.d2d2.scene;
+
+/**
+ * Fixed phases of a frame tick, run in declaration order.
+ */
+public enum UpdatePhase {
+
+    /**
+     * Runs first, before any game logic; meant for reading input state.
+     */
+    INPUT,
+
+    /**
+     * Regular game logic. Listeners of {@link com.ancevt.d2d2.event.StageEvent.Tick} run at the
+     * end of this phase.
+     */
+    UPDATE,
+
+    /**
+     * Runs after all updates, e.g. for cameras following objects that moved this tick.
+     */
+    LATE_UPDATE
+}
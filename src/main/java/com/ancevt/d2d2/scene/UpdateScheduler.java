@@ -0,0 +1,258 @@
+/**
+ * Copyright (C) 2025 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ancevt.d2d2.scene;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Runs registered {@link Updatable}s once per tick, phase by phase and, within a phase, in
+ * ascending priority order. Updatables of the same priority share a bucket and run in the order
+ * they were added.
+ * <p>
+ * Updatables may be added and removed while the scheduler is running: a removed one is skipped
+ * from then on, an added one first runs on the next tick. The time spent in each bucket during
+ * the last tick is recorded.
+ */
+public final class UpdateScheduler {
+
+    public static final int DEFAULT_PRIORITY = 0;
+
+    private static final UpdatePhase[] PHASES = UpdatePhase.values();
+    private static final int INITIAL_BUCKET_CAPACITY = 16;
+
+    private final Bucket[][] buckets = new Bucket[PHASES.length][];
+    private final int[] bucketCounts = new int[PHASES.length];
+    private final Map<Updatable, Registration> registrations = new IdentityHashMap<>();
+
+    UpdateScheduler() {
+        Arrays.setAll(buckets, i -> new Bucket[4]);
+    }
+
+    /**
+     * Registers the updatable in the {@link UpdatePhase#UPDATE} phase with the default priority.
+     */
+    public void add(Updatable updatable) {
+        add(updatable, UpdatePhase.UPDATE, DEFAULT_PRIORITY);
+    }
+
+    /**
+     * Registers the updatable. An updatable that is already registered is moved to the given
+     * phase and priority.
+     */
+    public void add(Updatable updatable, UpdatePhase phase, int priority) {
+        Objects.requireNonNull(updatable, "updatable");
+        Objects.requireNonNull(phase, "phase");
+
+        Registration registration = registrations.get(updatable);
+        if (registration != null) {
+            if (registration.bucket.phase == phase && registration.bucket.priority == priority) return;
+            remove(updatable);
+        }
+
+        registration = new Registration(updatable);
+        bucket(phase, priority).append(registration);
+        registrations.put(updatable, registration);
+    }
+
+    /**
+     * @return {@code false} if the updatable was not registered
+     */
+    public boolean remove(Updatable updatable) {
+        Registration registration = registrations.remove(updatable);
+        if (registration == null) return false;
+
+        Bucket bucket = registration.bucket;
+        bucket.items[registration.index] = null;
+        bucket.removed++;
+        // A running bucket may still iterate an older copy of its array
+        registration.bucket = null;
+        return true;
+    }
+
+    public boolean contains(Updatable updatable) {
+        return registrations.containsKey(updatable);
+    }
+
+    /**
+     * Number of registered updatables across all phases.
+     */
+    public int size() {
+        return registrations.size();
+    }
+
+    public void clear() {
+        for (Registration registration : registrations.values()) {
+            registration.bucket = null;
+        }
+        registrations.clear();
+        for (int p = 0; p < PHASES.length; p++) {
+            for (int i = 0; i < bucketCounts[p]; i++) {
+                Bucket bucket = buckets[p][i];
+                Arrays.fill(bucket.items, 0, bucket.size, null);
+                bucket.removed = bucket.size;
+            }
+        }
+    }
+
+    public int getBucketCount(UpdatePhase phase) {
+        return bucketCounts[phase.ordinal()];
+    }
+
+    public int getBucketPriority(UpdatePhase phase, int index) {
+        return bucketAt(phase, index).priority;
+    }
+
+    public int getBucketSize(UpdatePhase phase, int index) {
+        Bucket bucket = bucketAt(phase, index);
+        return bucket.size - bucket.removed;
+    }
+
+    /**
+     * Time spent running the bucket's updatables during the last tick.
+     */
+    public long getBucketTimeNanos(UpdatePhase phase, int index) {
+        return bucketAt(phase, index).timeNanos;
+    }
+
+    /**
+     * Time spent running all updatables of the phase during the last tick.
+     */
+    public long getPhaseTimeNanos(UpdatePhase phase) {
+        long total = 0;
+        for (int i = 0; i < bucketCounts[phase.ordinal()]; i++) {
+            total += buckets[phase.ordinal()][i].timeNanos;
+        }
+        return total;
+    }
+
+    void run(UpdatePhase phase) {
+        Bucket[] phaseBuckets = buckets[phase.ordinal()];
+        int count = bucketCounts[phase.ordinal()];
+
+        // Buckets created while running land in a new array or past count, and run next tick
+        for (int b = 0; b < count; b++) {
+            phaseBuckets[b].run();
+        }
+    }
+
+    private Bucket bucketAt(UpdatePhase phase, int index) {
+        if (index < 0 || index >= bucketCounts[phase.ordinal()]) {
+            throw new IndexOutOfBoundsException("Bucket index " + index + " out of bounds for phase " + phase);
+        }
+        return buckets[phase.ordinal()][index];
+    }
+
+    private Bucket bucket(UpdatePhase phase, int priority) {
+        int p = phase.ordinal();
+        Bucket[] phaseBuckets = buckets[p];
+        int count = bucketCounts[p];
+
+        int insertAt = 0;
+        while (insertAt < count && phaseBuckets[insertAt].priority < priority) insertAt++;
+        if (insertAt < count && phaseBuckets[insertAt].priority == priority) return phaseBuckets[insertAt];
+
+        // Copy rather than shift in place, a running phase keeps iterating its old array
+        Bucket[] grown = new Bucket[Math.max(phaseBuckets.length, count + 1)];
+        System.arraycopy(phaseBuckets, 0, grown, 0, insertAt);
+        System.arraycopy(phaseBuckets, insertAt, grown, insertAt + 1, count - insertAt);
+        Bucket bucket = new Bucket(phase, priority);
+        grown[insertAt] = bucket;
+        buckets[p] = grown;
+        bucketCounts[p] = count + 1;
+        return bucket;
+    }
+
+    private static final class Registration {
+        private final Updatable updatable;
+        private Bucket bucket;
+        private int index;
+
+        private Registration(Updatable updatable) {
+            this.updatable = updatable;
+        }
+    }
+
+    private static final class Bucket {
+        private final UpdatePhase phase;
+        private final int priority;
+        private Registration[] items = new Registration[INITIAL_BUCKET_CAPACITY];
+        private int size;
+        private int removed;
+        private boolean running;
+        private long timeNanos;
+
+        private Bucket(UpdatePhase phase, int priority) {
+            this.phase = phase;
+            this.priority = priority;
+        }
+
+        private void append(Registration registration) {
+            if (size == items.length) {
+                if (removed > 0 && !running) {
+                    compact();
+                }
+                if (size == items.length) {
+                    items = Arrays.copyOf(items, size * 2);
+                }
+            }
+            registration.bucket = this;
+            registration.index = size;
+            items[size++] = registration;
+        }
+
+        private void run() {
+            if (running) return;
+            if (removed > 0) compact();
+
+            long start = System.nanoTime();
+            running = true;
+            try {
+                // Items appended while running are past end and wait for the next tick
+                Registration[] snapshot = items;
+                int end = size;
+                for (int i = 0; i < end; i++) {
+                    Registration registration = snapshot[i];
+                    if (registration != null && registration.bucket == this) {
+                        registration.updatable.update();
+                    }
+                }
+            } finally {
+                running = false;
+                timeNanos = System.nanoTime() - start;
+            }
+        }
+
+        private void compact() {
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                Registration registration = items[i];
+                if (registration != null) {
+                    registration.index = n;
+                    items[n++] = registration;
+                }
+            }
+            Arrays.fill(items, n, size, null);
+            size = n;
+            removed = 0;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/**
+ * Copyright (C) 2025 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ancevt.d2d2.scene.interactive;
+
+import com.ancevt.d2d2.D2D2;
+import com.ancevt.d2d2.event.InputEvent;
+import com.ancevt.d2d2.event.StageEvent;
+import com.ancevt.d2d2.scene.Stage;
+import com.ancevt.d2d2.time.Timer;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Records the input the engine feeds into the scene into a compact binary journal that
+ * {@link InputReplay} can play back. Captured are the pointer calls to
+ * {@link InteractiveManager#screenTouch} and {@link InteractiveManager#screenMove}, key and wheel
+ * events dispatched on the stage, and a marker at the start of every frame holding the frame
+ * number and {@link Timer} time.
+ * <p>
+ * Numbers are written as variable-length integers, deltas where possible, so a typical pointer
+ * move takes four to six bytes.
+ */
+public class InputRecorder {
+
+    static final int MAGIC = 0x44324A4C;
+    static final int VERSION = 1;
+
+    static final int FRAME = 1;
+    static final int MOVE = 2;
+    static final int TOUCH = 3;
+    static final int KEY_DOWN = 4;
+    static final int KEY_UP = 5;
+    static final int KEY_REPEAT = 6;
+    static final int KEY_TYPE = 7;
+    static final int WHEEL = 8;
+
+    static final int ALT = 1;
+    static final int CONTROL = 1 << 1;
+    static final int SHIFT = 1 << 2;
+    static final int DOWN = 1 << 3;
+    static final int HAS_KEY_TYPE = 1 << 4;
+
+    private byte[] data = new byte[4096];
+    private int size;
+
+    @Getter
+    private boolean recording;
+    private long startTime;
+    private long lastFrameNumber;
+    private long lastFrameTime;
+
+    /**
+     * Number of frame markers written.
+     */
+    @Getter
+    private int frameCount;
+
+    /**
+     * Number of input records written.
+     */
+    @Getter
+    private int eventCount;
+
+    /**
+     * Starts a new journal, discarding the previous one.
+     */
+    public void start() {
+        if (recording) return;
+
+        size = 0;
+        frameCount = 0;
+        eventCount = 0;
+        writeInt(MAGIC);
+        writeVarLong(VERSION);
+
+        Stage stage = D2D2.getStage();
+        startTime = Timer.currentTimeMillis();
+        lastFrameTime = 0;
+        lastFrameNumber = stage.getFrameNumber();
+
+        stage.addEventListener(this, StageEvent.PreFrame.class, e -> recordFrame(stage.getFrameNumber()));
+        stage.addEventListener(this, InputEvent.KeyDown.class, e -> {
+            writeRecord(KEY_DOWN, modifiers(e.isAlt(), e.isControl(), e.isShift()));
+            writeVarLong(e.getKeyCode());
+            writeVarLong(e.getCharacter());
+        });
+        stage.addEventListener(this, InputEvent.KeyUp.class, e -> {
+            writeRecord(KEY_UP, modifiers(e.isAlt(), e.isControl(), e.isShift()));
+            writeVarLong(e.getKeyCode());
+        });
+        stage.addEventListener(this, InputEvent.KeyRepeat.class, e -> {
+            writeRecord(KEY_REPEAT, modifiers(e.isAlt(), e.isControl(), e.isShift()));
+            writeVarLong(e.getKeyCode());
+        });
+        stage.addEventListener(this, InputEvent.KeyType.class, e -> {
+            int flags = modifiers(e.isAlt(), e.isControl(), e.isShift());
+            if (e.getKeyType() != null) flags |= HAS_KEY_TYPE;
+            writeRecord(KEY_TYPE, flags);
+            writeVarLong(e.getKeyCode());
+            writeVarLong(e.getCharacter());
+            writeVarLong(e.getCodepoint());
+            if (e.getKeyType() != null) writeString(e.getKeyType());
+        });
+        stage.addEventListener(this, InputEvent.MouseWheel.class, e -> {
+            writeRecord(WHEEL, modifiers(e.isAlt(), e.isControl(), e.isShift()));
+            writeZigZag(e.getDelta());
+            writeFloat(e.getX());
+            writeFloat(e.getY());
+        });
+
+        InteractiveManager.getInstance().setInputRecorder(this);
+        recording = true;
+    }
+
+    public void stop() {
+        if (!recording) return;
+        recording = false;
+
+        D2D2.getStage().removeAllEventListenersByKey(this);
+        InteractiveManager interactiveManager = InteractiveManager.getInstance();
+        if (interactiveManager.getInputRecorder() == this) {
+            interactiveManager.setInputRecorder(null);
+        }
+    }
+
+    /**
+     * Size of the journal in bytes.
+     */
+    public int size() {
+        return size;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(data, size);
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(data, 0, size);
+    }
+
+    void recordMove(int pointer, int x, int y, boolean shift, boolean control, boolean alt) {
+        writeRecord(MOVE, modifiers(alt, control, shift));
+        writeVarLong(pointer);
+        writeZigZag(x);
+        writeZigZag(y);
+    }
+
+    void recordTouch(int x, int y, int pointer, int mouseButton, boolean down, boolean shift, boolean control, boolean alt) {
+        int flags = modifiers(alt, control, shift);
+        if (down) flags |= DOWN;
+        writeRecord(TOUCH, flags);
+        writeVarLong(pointer);
+        writeZigZag(mouseButton);
+        writeZigZag(x);
+        writeZigZag(y);
+    }
+
+    private void recordFrame(long frameNumber) {
+        long time = Timer.currentTimeMillis() - startTime;
+        writeByte(FRAME);
+        writeZigZag(frameNumber - lastFrameNumber);
+        writeZigZag(time - lastFrameTime);
+        lastFrameNumber = frameNumber;
+        lastFrameTime = time;
+        frameCount++;
+    }
+
+    private static int modifiers(boolean alt, boolean control, boolean shift) {
+        return (alt ? ALT : 0) | (control ? CONTROL : 0) | (shift ? SHIFT : 0);
+    }
+
+    private void writeRecord(int type, int flags) {
+        writeByte(type);
+        writeByte(flags);
+        eventCount++;
+    }
+
+    private void writeByte(int value) {
+        if (size == data.length) data = Arrays.copyOf(data, size * 2);
+        data[size++] = (byte) value;
+    }
+
+    private void writeInt(int value) {
+        writeByte(value >>> 24);
+        writeByte(value >>> 16);
+        writeByte(value >>> 8);
+        writeByte(value);
+    }
+
+    private void writeFloat(float value) {
+        writeInt(Float.floatToIntBits(value));
+    }
+
+    private void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+
+    private void writeZigZag(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    private void writeString(String value) {
+        writeVarLong(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            writeVarLong(value.charAt(i));
+        }
+    }
+}
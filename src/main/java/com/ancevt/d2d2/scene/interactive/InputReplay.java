@@ -0,0 +1,191 @@
+/**
+ * Copyright (C) 2025 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ancevt.d2d2.scene.interactive;
+
+import com.ancevt.d2d2.D2D2;
+import com.ancevt.d2d2.event.InputEvent;
+import com.ancevt.d2d2.event.StageEvent;
+import com.ancevt.d2d2.scene.Stage;
+import com.ancevt.d2d2.time.Timer;
+import lombok.Getter;
+
+import static com.ancevt.d2d2.scene.interactive.InputRecorder.*;
+
+/**
+ * Plays back a journal written by {@link InputRecorder}. The input recorded before a frame
+ * marker is fed in at the end of the previous frame, where the engine would have polled it, so
+ * every frame sees the same input as during recording. {@link Timer}s follow the recorded time
+ * while the replay runs.
+ */
+public class InputReplay {
+
+    private final byte[] data;
+    private final int headerSize;
+    private int position;
+
+    @Getter
+    private boolean running;
+
+    @Getter
+    private boolean finished;
+
+    @Getter
+    private int framesReplayed;
+
+    private long time;
+
+    /**
+     * @throws IllegalArgumentException if the data is not an input journal of a supported version
+     */
+    public InputReplay(byte[] journal) {
+        this.data = journal.clone();
+        if (data.length < 4 || readInt() != MAGIC) {
+            throw new IllegalArgumentException("Not an input journal");
+        }
+        long version = readVarLong();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported input journal version: " + version);
+        }
+        headerSize = position;
+    }
+
+    /**
+     * Feeds the input recorded before the first frame right away, then the rest frame by frame.
+     */
+    public void start() {
+        if (running) return;
+        running = true;
+        finished = false;
+        framesReplayed = 0;
+        position = headerSize;
+
+        time = Timer.currentTimeMillis();
+        Timer.setTimeSource(() -> time);
+
+        D2D2.getStage().addEventListener(this, StageEvent.PostFrame.class, e -> feedFrame());
+        feedFrame();
+    }
+
+    /**
+     * Stops feeding input and gives timers back the system clock.
+     */
+    public void stop() {
+        if (!running) return;
+        running = false;
+        D2D2.getStage().removeEventListener(this, StageEvent.PostFrame.class);
+        Timer.setTimeSource(null);
+    }
+
+    private void feedFrame() {
+        Stage stage = D2D2.getStage();
+        InteractiveManager interactiveManager = InteractiveManager.getInstance();
+
+        while (position < data.length) {
+            int type = readByte();
+            if (type == FRAME) {
+                readZigZag();
+                time += readZigZag();
+                framesReplayed++;
+                return;
+            }
+
+            int flags = readByte();
+            boolean alt = (flags & ALT) != 0;
+            boolean control = (flags & CONTROL) != 0;
+            boolean shift = (flags & SHIFT) != 0;
+
+            switch (type) {
+                case MOVE -> {
+                    int pointer = (int) readVarLong();
+                    int x = (int) readZigZag();
+                    int y = (int) readZigZag();
+                    interactiveManager.screenMove(pointer, x, y, shift, control, alt);
+                }
+                case TOUCH -> {
+                    int pointer = (int) readVarLong();
+                    int mouseButton = (int) readZigZag();
+                    int x = (int) readZigZag();
+                    int y = (int) readZigZag();
+                    interactiveManager.screenTouch(x, y, pointer, mouseButton, (flags & DOWN) != 0, shift, control, alt);
+                }
+                case KEY_DOWN -> {
+                    int keyCode = (int) readVarLong();
+                    char character = (char) readVarLong();
+                    stage.dispatchEvent(InputEvent.KeyDown.create(keyCode, character, alt, control, shift));
+                }
+                case KEY_UP -> stage.dispatchEvent(InputEvent.KeyUp.create((int) readVarLong(), alt, control, shift));
+                case KEY_REPEAT -> stage.dispatchEvent(InputEvent.KeyRepeat.create((int) readVarLong(), alt, control, shift));
+                case KEY_TYPE -> {
+                    int keyCode = (int) readVarLong();
+                    char character = (char) readVarLong();
+                    int codepoint = (int) readVarLong();
+                    String keyType = (flags & HAS_KEY_TYPE) != 0 ? readString() : null;
+                    stage.dispatchEvent(InputEvent.KeyType.create(keyCode, alt, control, shift, character, codepoint, keyType));
+                }
+                case WHEEL -> {
+                    int delta = (int) readZigZag();
+                    float x = readFloat();
+                    float y = readFloat();
+                    stage.dispatchEvent(InputEvent.MouseWheel.create(delta, x, y, alt, control, shift));
+                }
+                default -> throw new IllegalStateException("Corrupt input journal, record type " + type + " at " + (position - 2));
+            }
+        }
+
+        finished = true;
+        stop();
+    }
+
+    private int readByte() {
+        if (position >= data.length) throw new IllegalStateException("Truncated input journal");
+        return data[position++] & 0xFF;
+    }
+
+    private int readInt() {
+        return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+    }
+
+    private float readFloat() {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+            if (shift > 56) throw new IllegalStateException("Corrupt input journal, varint too long");
+        }
+    }
+
+    private long readZigZag() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private String readString() {
+        int length = (int) readVarLong();
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) readVarLong());
+        }
+        return sb.toString();
+    }
+}
@@ -24,6 +24,8 @@ import com.ancevt.d2d2.event.core.EventLink;
 import com.ancevt.d2d2.event.core.EventListener;
 import com.ancevt.d2d2.scene.Node;
 import com.ancevt.d2d2.scene.shape.FreeShape;
+import com.ancevt.d2d2.scene.texture.AlphaMaskCache;
+import com.ancevt.d2d2.scene.texture.TextureRegion;
 
 public interface Interactive extends Node, Disposable {
 
@@ -63,6 +65,25 @@ public interface Interactive extends Node, Disposable {
 
     FreeShape getInteractiveFreeShape();
 
+    /**
+     * Restricts hits within the interactive area to the opaque texels of
+     * {@link #getHitTextureRegion()}, as told by the texture's {@link AlphaMaskCache alpha mask}.
+     * While the mask is being built, or if it cannot be, the whole area is hit.
+     */
+    default void setAlphaHitTestEnabled(boolean alphaHitTestEnabled) {
+    }
+
+    default boolean isAlphaHitTestEnabled() {
+        return false;
+    }
+
+    /**
+     * The region, drawn at the local origin, whose alpha is used for alpha hit tests.
+     */
+    default TextureRegion getHitTextureRegion() {
+        return null;
+    }
+
     @SuppressWarnings("unchecked")
     default EventLink<InputEvent.MouseDown> onMouseDown(EventListener<InputEvent.MouseDown> listener) {
         return (EventLink<InputEvent.MouseDown>) on(InputEvent.MouseDown.class, listener);
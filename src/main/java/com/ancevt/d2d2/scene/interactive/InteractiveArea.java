@@ -20,20 +20,29 @@ package com.ancevt.d2d2.scene.interactive;
 
 public class InteractiveArea {
 
+    private final Interactive owner;
     private float x;
     private float y;
     private float width;
     private float height;
 
-    InteractiveArea(final float x, final float y, final float width, final float height) {
+    InteractiveArea(final Interactive owner, final float x, final float y, final float width, final float height) {
+        this.owner = owner;
         setUp(x, y, width, height);
     }
 
     public final void setUp(final float x, final float y, final float width, final float height) {
         this.x = x;
         this.y = y;
+        setSize(width, height);
+    }
+
+    // Only the size is part of the hit area, x and y mirror the owner's position
+    private void setSize(float width, float height) {
+        if (this.width == width && this.height == height) return;
         this.width = width;
         this.height = height;
+        if (owner != null) InteractiveManager.hitAreaChanged(owner);
     }
 
     public float getX() {
@@ -57,7 +66,7 @@ public class InteractiveArea {
     }
 
     public void setWidth(float width) {
-        this.width = width;
+        setSize(width, height);
     }
 
     public float getHeight() {
@@ -65,7 +74,7 @@ public class InteractiveArea {
     }
 
     public void setHeight(float height) {
-        this.height = height;
+        setSize(width, height);
     }
 
     @Override
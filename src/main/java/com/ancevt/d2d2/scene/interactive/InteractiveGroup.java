@@ -36,6 +36,7 @@ public class InteractiveGroup extends BasicGroup implements Interactive, Resizab
     private boolean tabbingEnabled;
     private boolean disposed;
     private boolean pushEventsUp;
+    private boolean alphaHitTestEnabled;
 
     private FreeShape interactiveFreeShape;
 
@@ -44,8 +45,7 @@ public class InteractiveGroup extends BasicGroup implements Interactive, Resizab
     }
 
     public InteractiveGroup(float width, float height) {
-        interactiveArea = new InteractiveArea(0, 0, width, height);
-        setName("_" + getClass().getSimpleName() + getNodeId());
+        interactiveArea = new InteractiveArea(this, 0, 0, width, height);
         enabled = true;
         pushEventsUp = true;
         InteractiveManager.getInstance().registerInteractive(this);
@@ -53,7 +53,14 @@ public class InteractiveGroup extends BasicGroup implements Interactive, Resizab
 
     @Override
     public void setInteractiveFreeShape(FreeShape interactiveFreeShape) {
+        if (this.interactiveFreeShape != null) {
+            this.interactiveFreeShape.removeEventListener(this, CommonEvent.Change.class);
+        }
         this.interactiveFreeShape = interactiveFreeShape;
+        if (interactiveFreeShape != null) {
+            interactiveFreeShape.addEventListener(this, CommonEvent.Change.class, e -> InteractiveManager.hitAreaChanged(this));
+        }
+        InteractiveManager.hitAreaChanged(this);
     }
 
     @Override
@@ -61,6 +68,16 @@ public class InteractiveGroup extends BasicGroup implements Interactive, Resizab
         return interactiveFreeShape;
     }
 
+    @Override
+    public void setAlphaHitTestEnabled(boolean alphaHitTestEnabled) {
+        this.alphaHitTestEnabled = alphaHitTestEnabled;
+    }
+
+    @Override
+    public boolean isAlphaHitTestEnabled() {
+        return alphaHitTestEnabled;
+    }
+
     @Override
     public void setPushEventsUp(boolean pushEventUp) {
         this.pushEventsUp = pushEventUp;
@@ -92,11 +109,13 @@ public class InteractiveGroup extends BasicGroup implements Interactive, Resizab
 
     public void setWidth(float width) {
         interactiveArea.setWidth(width);
+        invalidateBounds();
         dispatchResizeEvent();
     }
 
     public void setHeight(float height) {
         interactiveArea.setHeight(height);
+        invalidateBounds();
         dispatchResizeEvent();
     }
 
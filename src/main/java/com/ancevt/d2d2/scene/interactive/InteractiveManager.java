@@ -22,10 +22,22 @@ import com.ancevt.d2d2.D2D2;
 import com.ancevt.d2d2.event.InputEvent;
 import com.ancevt.d2d2.event.NodeEvent;
 import com.ancevt.d2d2.event.StageEvent;
+import com.ancevt.d2d2.event.core.EventDispatcher;
+import com.ancevt.d2d2.event.core.EventPropagation;
 import com.ancevt.d2d2.input.KeyCode;
+import com.ancevt.d2d2.input.Modifier;
 import com.ancevt.d2d2.input.MouseButton;
+import com.ancevt.d2d2.scene.Matrix2D;
+import com.ancevt.d2d2.scene.Node;
+import com.ancevt.d2d2.scene.Rect;
+import com.ancevt.d2d2.scene.SpatialIndex;
 import com.ancevt.d2d2.scene.shape.FreeShape;
+import com.ancevt.d2d2.scene.texture.AlphaMask;
+import com.ancevt.d2d2.scene.texture.AlphaMaskCache;
+import com.ancevt.d2d2.scene.texture.TextureRegion;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -38,12 +50,26 @@ public class InteractiveManager {
     }
 
     private final List<Interactive> interactiveList;
+    private final float[] hitPoint = new float[2];
     private static final int KEY_HOLD_TIME = 30;
+    private static final float PICK_CELL_SIZE = 64f;
+    private static final int MOUSE_POINTER = 0;
+
+    private EventDispatcher[] path = new EventDispatcher[16];
+    private int pathSize;
+
+    private final SpatialIndex pickIndex = new SpatialIndex(PICK_CELL_SIZE, this::hitBounds);
+    private final List<Node> candidates = new ArrayList<>();
+    private final Matrix2D hitTransform = new Matrix2D();
+    private final Rect hitRect = new Rect();
+
+    // Per-pointer state, one slot per pointer id seen so far
+    private int[] pointerIds = new int[4];
+    private Interactive[] hoverTargets = new Interactive[4];
+    private Interactive[] dragTargets = new Interactive[4];
+    private int[] buttonMasks = new int[4];
+    private int pointerCount;
 
-    private boolean leftMouseButton;
-    private boolean rightMouseButton;
-    private boolean middleMouseButton;
-    private Interactive hoveredInteractive;
     private Interactive focusedInteractive;
     private int focusedInteractiveIndex;
     private boolean tabbingEnabled;
@@ -54,6 +80,25 @@ public class InteractiveManager {
     private boolean control;
     private boolean shift;
 
+    // Coalesced motion per pointer slot
+    private boolean[] movePending = new boolean[4];
+    private int[] pendingX = new int[4];
+    private int[] pendingY = new int[4];
+    private int[] pendingModifiers = new int[4];
+    private float[][] moveSamples = new float[4][];
+    private float[][] flushedSamples = new float[4][];
+    private int[] moveSampleCounts = new int[4];
+
+    private InputRecorder inputRecorder;
+
+    private boolean wheelPending;
+    private int pendingWheelDelta;
+    private float pendingWheelX;
+    private float pendingWheelY;
+    private boolean pendingWheelAlt;
+    private boolean pendingWheelControl;
+    private boolean pendingWheelShift;
+
     private InteractiveManager() {
         interactiveList = new CopyOnWriteArrayList<>();
         focusedInteractiveIndex = -1;
@@ -102,22 +147,21 @@ public class InteractiveManager {
         });
 
         D2D2.getStage().addEventListener(InputEvent.MouseWheel.class, e -> {
-            Interactive interactive = (hoveredInteractive != null && hoveredInteractive.isOnScreen() && hoveredInteractive.isHovering())
-                    ? hoveredInteractive
-                    : getFocused();
-
-            if (interactive != null) {
-                dispatch(interactive, InputEvent.MouseWheel.create(
-                        e.getDelta(),
-                        e.getX(),
-                        e.getY(),
-                        e.isAlt(),
-                        e.isControl(),
-                        e.isShift()
-                ));
+            if (D2D2.getStage().isEventCoalescingEnabled()) {
+                pendingWheelDelta += e.getDelta();
+                pendingWheelX = e.getX();
+                pendingWheelY = e.getY();
+                pendingWheelAlt = e.isAlt();
+                pendingWheelControl = e.isControl();
+                pendingWheelShift = e.isShift();
+                wheelPending = true;
+            } else {
+                dispatchWheel(e.getDelta(), e.getX(), e.getY(), e.isAlt(), e.isControl(), e.isShift());
             }
         });
 
+        D2D2.getStage().addEventListener(StageEvent.PreFrame.class, e -> flushCoalescedInput());
+
         D2D2.getStage().addEventListener(InputEvent.KeyType.class, e -> {
             Interactive focused = getFocused();
             if (focused != null) {
@@ -143,11 +187,14 @@ public class InteractiveManager {
                 }
             });
             interactiveList.add(interactive);
+            pickIndex.add(interactive);
         }
     }
 
     public final void unregisterInteractive(final Interactive interactive) {
         interactiveList.remove(interactive);
+        pickIndex.remove(interactive);
+        forgetPointerTargets(interactive);
         interactive.removeEventListener(this, NodeEvent.RemoveFromScene.class);
     }
 
@@ -155,6 +202,9 @@ public class InteractiveManager {
         while (!interactiveList.isEmpty()) {
             interactiveList.remove(0);
         }
+        pickIndex.clear();
+        Arrays.fill(hoverTargets, 0, pointerCount, null);
+        Arrays.fill(dragTargets, 0, pointerCount, null);
     }
 
     public final void screenTouch(final int x,
@@ -166,190 +216,223 @@ public class InteractiveManager {
                                   boolean control,
                                   boolean alt) {
 
-        leftMouseButton = mouseButton == MouseButton.LEFT;
-        rightMouseButton = mouseButton == MouseButton.RIGHT;
-        middleMouseButton = mouseButton == MouseButton.MIDDLE;
+        if (inputRecorder != null) {
+            inputRecorder.recordTouch(x, y, pointer, mouseButton, down, shift, control, alt);
+        }
 
-        Interactive pressedInteractive = null;
+        int slot = pointerSlot(pointer);
+        if (pointer == MOUSE_POINTER) {
+            D2D2.getStage().getInputState().mouseButton(mouseButton, down);
+        }
 
-        if (down) {
-            int maxIndex = 0;
-            float _tcX = 0.0f, _tcY = 0.0f;
-
-            for (Interactive interactive : interactiveList) {
-                if (interactive.getInteractiveFreeShape() != null) {
-                    FreeShape freeShape = interactive.getInteractiveFreeShape();
-                    int index = interactive.getGlobalZOrderIndex();
-                    if (interactive.isOnScreen() &&
-                            freeShape.isPointInsideFreeShape(
-                                    (x - interactive.getGlobalX()) / interactive.getGlobalScaleX(),
-                                    (y - interactive.getGlobalY()) / interactive.getGlobalScaleY()
-                            ) && index > maxIndex) {
-                        maxIndex = index;
-                        _tcX = interactive.getGlobalX();
-                        _tcY = interactive.getGlobalY();
-                        pressedInteractive = interactive;
-                    }
+        // A press or release must be seen after the motion that led to it
+        flushPendingMove(slot);
 
-                } else {
-                    final float tcX = interactive.getGlobalX();
-                    final float tcY = interactive.getGlobalY();
-                    final float tcW = interactive.getInteractiveArea().getWidth() * interactive.getGlobalScaleX();
-                    final float tcH = interactive.getInteractiveArea().getHeight() * interactive.getGlobalScaleY();
-
-                    if (interactive.isOnScreen() && x >= tcX && x <= tcX + tcW && y >= tcY && y <= tcY + tcH) {
-                        int index = interactive.getGlobalZOrderIndex();
-                        if (index >= maxIndex) {
-                            pressedInteractive = interactive;
-                            maxIndex = index;
-                            _tcX = tcX;
-                            _tcY = tcY;
-                        }
-                    }
-                }
-            }
+        int buttonBit = mouseButton >= 0 && mouseButton < Integer.SIZE ? 1 << mouseButton : 0;
+
+        if (down) {
+            buttonMasks[slot] |= buttonBit;
+            int buttons = buttonMasks[slot];
+            Interactive pressedInteractive = pick(x, y);
 
             if (pressedInteractive != null) {
+                final float _tcX = pressedInteractive.getGlobalX();
+                final float _tcY = pressedInteractive.getGlobalY();
                 setFocused(pressedInteractive, true);
                 dispatch(pressedInteractive, InputEvent.MouseDown.create(
+                        pointer,
                         (int) (x - _tcX),
                         (int) (y - _tcY),
                         mouseButton,
-                        leftMouseButton,
-                        rightMouseButton,
-                        middleMouseButton,
+                        (buttons & 1 << MouseButton.LEFT) != 0,
+                        (buttons & 1 << MouseButton.RIGHT) != 0,
+                        (buttons & 1 << MouseButton.MIDDLE) != 0,
                         alt, control, shift
                 ));
 
                 pressedInteractive.setDragging(true);
+                dragTargets[slot] = pressedInteractive;
             }
 
         } else {
-            for (Interactive interactive : interactiveList) {
-                if (interactive != null && interactive.isOnScreen()) {
-                    final float tcX = interactive.getGlobalX();
-                    final float tcY = interactive.getGlobalY();
-                    final float tcW = interactive.getInteractiveArea().getWidth() * interactive.getGlobalScaleX();
-                    final float tcH = interactive.getInteractiveArea().getHeight() * interactive.getGlobalScaleY();
-
-                    boolean onArea = x >= tcX && x <= tcX + tcW && y >= tcY && y <= tcY + tcH;
-
-                    if (interactive.getInteractiveFreeShape() != null) {
-                        onArea = interactive.getInteractiveFreeShape().isPointInsideFreeShape(
-                                (x - interactive.getGlobalX()) / interactive.getGlobalScaleX(),
-                                (y - interactive.getGlobalY()) / interactive.getGlobalScaleY()
-                        );
-                    }
-
-                    if (interactive.isDragging()) {
-                        dispatch(interactive, InputEvent.MouseUp.create(
-                                (int) (x - tcX),
-                                (int) (y - tcY),
-                                mouseButton,
-                                leftMouseButton,
-                                rightMouseButton,
-                                middleMouseButton,
-                                onArea,
-                                alt,
-                                shift,
-                                control
-                        ));
-                        interactive.setDragging(false);
-                    }
-                }
+            // The event reports the buttons held until this release
+            int buttons = buttonMasks[slot] | buttonBit;
+            buttonMasks[slot] &= ~buttonBit;
+
+            Interactive interactive = dragTargets[slot];
+            dragTargets[slot] = null;
+            if (interactive != null && interactive.isOnScreen() && interactive.isDragging()) {
+                final float tcX = interactive.getGlobalX();
+                final float tcY = interactive.getGlobalY();
+
+                boolean onArea = hitTest(interactive, x, y);
+
+                dispatch(interactive, InputEvent.MouseUp.create(
+                        pointer,
+                        (int) (x - tcX),
+                        (int) (y - tcY),
+                        mouseButton,
+                        (buttons & 1 << MouseButton.LEFT) != 0,
+                        (buttons & 1 << MouseButton.RIGHT) != 0,
+                        (buttons & 1 << MouseButton.MIDDLE) != 0,
+                        onArea,
+                        alt,
+                        shift,
+                        control
+                ));
+                if (!isTargetOfOtherPointer(dragTargets, interactive, slot)) interactive.setDragging(false);
             }
         }
     }
 
 
+    /**
+     * Handles pointer motion. While the stage coalesces events, only the latest position is kept
+     * and the raw positions are collected as samples; the hit-test pass then runs once, at the
+     * start of the next frame.
+     */
     public final void screenMove(int pointer, final int x, final int y, boolean shift, boolean control, boolean alt) {
-        float _tcX = 0.0f, _tcY = 0.0f;
-        int maxIndex = 0;
-        Interactive upperInteractive = null;
-
-        for (final Interactive interactive : interactiveList) {
-            final float tcX = interactive.getGlobalX();
-            final float tcY = interactive.getGlobalY();
-            final float tcW = interactive.getInteractiveArea().getWidth() * interactive.getGlobalScaleX();
-            final float tcH = interactive.getInteractiveArea().getHeight() * interactive.getGlobalScaleY();
-
-            final boolean onScreen = interactive.isOnScreen();
-            boolean onArea = x >= tcX && x <= tcX + tcW && y >= tcY && y <= tcY + tcH;
-
-            if (interactive.getInteractiveFreeShape() != null) {
-                onArea = interactive.getInteractiveFreeShape().isPointInsideFreeShape(
-                        (x - interactive.getGlobalX()) / interactive.getGlobalScaleX(),
-                        (y - interactive.getGlobalY()) / interactive.getGlobalScaleY()
-                );
-            }
+        if (inputRecorder != null) {
+            inputRecorder.recordMove(pointer, x, y, shift, control, alt);
+        }
 
-            if (onScreen) {
-                if (onArea) {
-                    int index = interactive.getGlobalZOrderIndex();
-                    if (index >= maxIndex) {
-                        maxIndex = index;
-                        _tcX = tcX;
-                        _tcY = tcY;
-                        upperInteractive = interactive;
-
-                        dispatch(interactive, InputEvent.MouseMove.create(
-                                (int) (x - tcX),
-                                (int) (y - tcY),
-                                true,
-                                alt,
-                                control,
-                                shift
-                        ));
-                    }
-                }
+        int slot = pointerSlot(pointer);
+        if (pointer == MOUSE_POINTER) {
+            D2D2.getStage().getInputState().mouseMoved(x, y);
+        }
 
-                if (interactive.isDragging()) {
-                    dispatch(interactive, InputEvent.MouseDrag.create(
-                            (int) (x - tcX),
-                            (int) (y - tcY),
-                            leftMouseButton ? MouseButton.LEFT :
-                                    rightMouseButton ? MouseButton.RIGHT :
-                                            middleMouseButton ? MouseButton.MIDDLE : -1,
-                            leftMouseButton,
-                            rightMouseButton,
-                            middleMouseButton,
-                            alt,
-                            control,
-                            shift
-                    ));
-                }
+        if (!D2D2.getStage().isEventCoalescingEnabled()) {
+            flushPendingMove(slot);
+            processMove(slot, x, y, shift, control, alt, moveSamples[slot], 0);
+            return;
+        }
 
-                if (interactive.isHovering() && !onArea) {
-                    interactive.setHovering(false);
-                    dispatch(interactive, InputEvent.MouseOut.create(
-                            (int) (x - tcX),
-                            (int) (y - tcY),
-                            alt,
-                            control,
-                            shift
-                    ));
-                }
-            }
+        float[] samples = moveSamples[slot];
+        int sampleCount = moveSampleCounts[slot];
+        if (sampleCount * 2 + 2 > samples.length) {
+            moveSamples[slot] = samples = Arrays.copyOf(samples, samples.length * 2);
         }
+        samples[sampleCount * 2] = x;
+        samples[sampleCount * 2 + 1] = y;
+        moveSampleCounts[slot] = sampleCount + 1;
+
+        pendingX[slot] = x;
+        pendingY[slot] = y;
+        pendingModifiers[slot] = (shift ? Modifier.SHIFT : 0) | (control ? Modifier.CONTROL : 0) | (alt ? Modifier.ALT : 0);
+        movePending[slot] = true;
+    }
 
-        if (upperInteractive != null && !upperInteractive.isHovering()) {
-            if (hoveredInteractive != null) {
-                dispatch(hoveredInteractive, InputEvent.MouseOut.create(
-                        (int) (x - _tcX),
-                        (int) (y - _tcY),
-                        alt,
-                        control,
-                        shift
-                ));
-                hoveredInteractive.setHovering(false);
+    void setInputRecorder(InputRecorder inputRecorder) {
+        this.inputRecorder = inputRecorder;
+    }
+
+    InputRecorder getInputRecorder() {
+        return inputRecorder;
+    }
+
+    /**
+     * Delivers the motion and wheel input merged since the previous frame. Called at the start of
+     * every frame.
+     */
+    public void flushCoalescedInput() {
+        for (int slot = 0; slot < pointerCount; slot++) {
+            flushPendingMove(slot);
+        }
+
+        if (wheelPending) {
+            wheelPending = false;
+            int delta = pendingWheelDelta;
+            pendingWheelDelta = 0;
+            dispatchWheel(delta, pendingWheelX, pendingWheelY, pendingWheelAlt, pendingWheelControl, pendingWheelShift);
+        }
+    }
+
+    private void flushPendingMove(int slot) {
+        if (!movePending[slot]) return;
+        movePending[slot] = false;
+
+        // Listeners keep the flushed samples until the next flush, new motion goes to the other buffer
+        float[] samples = moveSamples[slot];
+        int sampleCount = moveSampleCounts[slot];
+        moveSamples[slot] = flushedSamples[slot];
+        flushedSamples[slot] = samples;
+        moveSampleCounts[slot] = 0;
+
+        int modifiers = pendingModifiers[slot];
+        processMove(slot, pendingX[slot], pendingY[slot],
+                (modifiers & Modifier.SHIFT) != 0, (modifiers & Modifier.CONTROL) != 0, (modifiers & Modifier.ALT) != 0,
+                samples, sampleCount);
+    }
+
+    private void dispatchWheel(int delta, float x, float y, boolean alt, boolean control, boolean shift) {
+        // The wheel belongs to the mouse
+        int slot = findPointerSlot(MOUSE_POINTER);
+        Interactive hovered = slot == -1 ? null : hoverTargets[slot];
+        Interactive interactive = (hovered != null && hovered.isOnScreen() && hovered.isHovering())
+                ? hovered
+                : getFocused();
+
+        if (interactive != null) {
+            dispatch(interactive, InputEvent.MouseWheel.create(delta, x, y, alt, control, shift));
+        }
+    }
+
+    private void processMove(int slot, int x, int y, boolean shift, boolean control, boolean alt, float[] samples, int sampleCount) {
+        int pointer = pointerIds[slot];
+        Interactive upperInteractive = pick(x, y);
+
+        if (upperInteractive != null) {
+            dispatch(upperInteractive, InputEvent.MouseMove.create(
+                    pointer,
+                    (int) (x - upperInteractive.getGlobalX()),
+                    (int) (y - upperInteractive.getGlobalY()),
+                    true,
+                    alt,
+                    control,
+                    shift,
+                    samples,
+                    sampleCount
+            ));
+        }
+
+        Interactive dragged = dragTargets[slot];
+        if (dragged != null && dragged.isOnScreen() && dragged.isDragging()) {
+            int buttons = buttonMasks[slot];
+            dispatch(dragged, InputEvent.MouseDrag.create(
+                    pointer,
+                    (int) (x - dragged.getGlobalX()),
+                    (int) (y - dragged.getGlobalY()),
+                    buttons == 0 ? -1 : Integer.numberOfTrailingZeros(buttons),
+                    (buttons & 1 << MouseButton.LEFT) != 0,
+                    (buttons & 1 << MouseButton.RIGHT) != 0,
+                    (buttons & 1 << MouseButton.MIDDLE) != 0,
+                    alt,
+                    control,
+                    shift,
+                    samples,
+                    sampleCount
+            ));
+        }
+
+        // The pointer leaves its hover target once it is out of the target's area
+        Interactive hovered = hoverTargets[slot];
+        if (hovered != null && hovered != upperInteractive && (!hovered.isOnScreen() || !hitTest(hovered, x, y))) {
+            hoverTargets[slot] = null;
+            endHover(slot, hovered, x, y, shift, control, alt);
+        }
+
+        if (upperInteractive != null && (upperInteractive != hoverTargets[slot] || !upperInteractive.isHovering())) {
+            Interactive previous = hoverTargets[slot];
+            hoverTargets[slot] = upperInteractive;
+            if (previous != null && previous != upperInteractive) {
+                endHover(slot, previous, x, y, shift, control, alt);
             }
 
-            hoveredInteractive = upperInteractive;
             upperInteractive.setHovering(true);
-
             dispatch(upperInteractive, InputEvent.MouseHover.create(
-                    (int) (x - _tcX),
-                    (int) (y - _tcY),
+                    pointer,
+                    (int) (x - upperInteractive.getGlobalX()),
+                    (int) (y - upperInteractive.getGlobalY()),
                     alt,
                     control,
                     shift
@@ -357,6 +440,146 @@ public class InteractiveManager {
         }
     }
 
+    private void endHover(int slot, Interactive interactive, int x, int y, boolean shift, boolean control, boolean alt) {
+        if (!interactive.isHovering()) return;
+        // Other pointers may still be over it
+        if (!isTargetOfOtherPointer(hoverTargets, interactive, slot)) interactive.setHovering(false);
+        dispatch(interactive, InputEvent.MouseOut.create(
+                pointerIds[slot],
+                (int) (x - interactive.getGlobalX()),
+                (int) (y - interactive.getGlobalY()),
+                alt,
+                control,
+                shift
+        ));
+    }
+
+    /**
+     * Returns the topmost interactive on screen whose hit area contains the stage point. Only
+     * the interactives whose world-space hit bounds contain the point, as found by the pick
+     * index, are tested exactly.
+     */
+    private Interactive pick(float x, float y) {
+        validateDrawOrder();
+
+        Interactive top = null;
+        int maxIndex = 0;
+
+        pickIndex.queryPoint(x, y, candidates);
+        for (int i = 0; i < candidates.size(); i++) {
+            Interactive interactive = (Interactive) candidates.get(i);
+            if (interactive.isOnScreen() && hitTest(interactive, x, y)) {
+                int index = interactive.getGlobalZOrderIndex();
+                if (index >= maxIndex) {
+                    maxIndex = index;
+                    top = interactive;
+                }
+            }
+        }
+        candidates.clear();
+        return top;
+    }
+
+    /**
+     * World-space bounding box of the interactive's hit area, tracked by the pick index.
+     */
+    private Rect hitBounds(Node node, Rect out) {
+        Interactive interactive = (Interactive) node;
+        FreeShape freeShape = interactive.getInteractiveFreeShape();
+        if (freeShape != null) {
+            freeShape.getBounds(hitRect);
+        } else {
+            InteractiveArea area = interactive.getInteractiveArea();
+            hitRect.set(0f, 0f, area.getWidth(), area.getHeight());
+        }
+        return node.getGlobalTransform(hitTransform).transformBounds(hitRect, out);
+    }
+
+    /**
+     * Must be called when an interactive's hit area changes in a way that does not go through
+     * its transform, its interactive area or its free shape's vertices, which all refresh the
+     * pick index by themselves.
+     */
+    public void invalidateHitArea(Interactive interactive) {
+        pickIndex.invalidate(interactive);
+    }
+
+    static void hitAreaChanged(Interactive interactive) {
+        if (instance != null) instance.invalidateHitArea(interactive);
+    }
+
+    /**
+     * Returns the interactive the pointer is over, or {@code null}.
+     */
+    public Interactive getHoveredInteractive(int pointer) {
+        int slot = findPointerSlot(pointer);
+        return slot == -1 ? null : hoverTargets[slot];
+    }
+
+    /**
+     * Returns the interactive the pointer pressed and is dragging, or {@code null}.
+     */
+    public Interactive getDraggedInteractive(int pointer) {
+        int slot = findPointerSlot(pointer);
+        return slot == -1 ? null : dragTargets[slot];
+    }
+
+    /**
+     * Returns the buttons the pointer holds, bit {@code 1 << button} per {@link MouseButton}.
+     */
+    public int getPointerButtons(int pointer) {
+        int slot = findPointerSlot(pointer);
+        return slot == -1 ? 0 : buttonMasks[slot];
+    }
+
+    private int findPointerSlot(int pointer) {
+        for (int slot = 0; slot < pointerCount; slot++) {
+            if (pointerIds[slot] == pointer) return slot;
+        }
+        return -1;
+    }
+
+    // Slots are never freed: backends reuse a small set of pointer ids
+    private int pointerSlot(int pointer) {
+        int slot = findPointerSlot(pointer);
+        if (slot != -1) return slot;
+
+        if (pointerCount == pointerIds.length) {
+            int capacity = pointerCount * 2;
+            pointerIds = Arrays.copyOf(pointerIds, capacity);
+            hoverTargets = Arrays.copyOf(hoverTargets, capacity);
+            dragTargets = Arrays.copyOf(dragTargets, capacity);
+            buttonMasks = Arrays.copyOf(buttonMasks, capacity);
+            movePending = Arrays.copyOf(movePending, capacity);
+            pendingX = Arrays.copyOf(pendingX, capacity);
+            pendingY = Arrays.copyOf(pendingY, capacity);
+            pendingModifiers = Arrays.copyOf(pendingModifiers, capacity);
+            moveSamples = Arrays.copyOf(moveSamples, capacity);
+            flushedSamples = Arrays.copyOf(flushedSamples, capacity);
+            moveSampleCounts = Arrays.copyOf(moveSampleCounts, capacity);
+        }
+
+        slot = pointerCount++;
+        pointerIds[slot] = pointer;
+        moveSamples[slot] = new float[32];
+        flushedSamples[slot] = new float[32];
+        return slot;
+    }
+
+    private boolean isTargetOfOtherPointer(Interactive[] targets, Interactive interactive, int slot) {
+        for (int i = 0; i < pointerCount; i++) {
+            if (i != slot && targets[i] == interactive) return true;
+        }
+        return false;
+    }
+
+    private void forgetPointerTargets(Interactive interactive) {
+        for (int slot = 0; slot < pointerCount; slot++) {
+            if (hoverTargets[slot] == interactive) hoverTargets[slot] = null;
+            if (dragTargets[slot] == interactive) dragTargets[slot] = null;
+        }
+    }
+
 
     public void setFocused(Interactive interactive, boolean byMouseDown) {
 
@@ -483,7 +706,7 @@ public class InteractiveManager {
                         if (focusedInteractive != null) {
                             dispatch(focusedInteractive, InputEvent.MouseDown.create(
                                     0, 0, MouseButton.LEFT,
-                                    true, rightMouseButton, middleMouseButton, alt, control, shift
+                                    true, false, false, alt, control, shift
                             ));
                         }
                     }
@@ -502,7 +725,7 @@ public class InteractiveManager {
                         if (focusedInteractive != null) {
                             dispatch(focusedInteractive, InputEvent.MouseUp.create(
                                     0, 0, MouseButton.LEFT,
-                                    true, rightMouseButton, middleMouseButton, true, alt, control, shift
+                                    true, false, false, true, alt, control, shift
                             ));
                         }
                     }
@@ -531,13 +754,67 @@ public class InteractiveManager {
     }
 
 
-    private static void dispatch(Interactive eventDispatcher, InputEvent event) {
-        if (!eventDispatcher.isInteractionEnabled() || !eventDispatcher.isGloballyVisible()) return;
+    /**
+     * Makes sure the draw indices used to pick the topmost interactive match the current scene.
+     * Renumbering only happens after the scene changed and leaves the frame's render list alone.
+     */
+    private static void validateDrawOrder() {
+        D2D2.getStage().validateDrawIndices();
+    }
+
+    /**
+     * Tests a global point against the interactive's area, alpha mask or free shape in the
+     * interactive's local space, so rotated, flipped and nested-scaled nodes are
+     * picked correctly.
+     */
+    private boolean hitTest(Interactive interactive, float x, float y) {
+        hitPoint[0] = x;
+        hitPoint[1] = y;
+        interactive.globalToLocal(hitPoint);
+        final float localX = hitPoint[0];
+        final float localY = hitPoint[1];
+
+        FreeShape freeShape = interactive.getInteractiveFreeShape();
+        if (freeShape != null) {
+            return freeShape.isPointInsideFreeShape(localX, localY);
+        }
+
+        InteractiveArea area = interactive.getInteractiveArea();
+        boolean inArea = localX >= 0 && localX <= area.getWidth() && localY >= 0 && localY <= area.getHeight();
+        if (!inArea || !interactive.isAlphaHitTestEnabled()) return inArea;
+
+        TextureRegion region = interactive.getHitTextureRegion();
+        if (region == null) return true;
+        AlphaMask mask = AlphaMaskCache.get(region.getTexture());
+        if (mask == null) return true;
 
-        eventDispatcher.dispatchEvent(event);
+        int texelX = region.getX() + Math.min((int) localX, region.getWidth() - 1);
+        int texelY = region.getY() + Math.min((int) localY, region.getHeight() - 1);
+        return mask.isOpaque(texelX, texelY);
+    }
+
+    /**
+     * Propagates the event from the target through its chain of interactive ancestors with
+     * capture, target and bubble phases. The chain ends at the first ancestor that is not an
+     * interactive, is disabled or invisible, or below one that does not push events up.
+     * Paths are stacked in one reusable array, so listeners may dispatch nested events.
+     */
+    private void dispatch(Interactive target, InputEvent event) {
+        int offset = pathSize;
+        Interactive node = target;
+
+        while (node.isInteractionEnabled() && node.isGloballyVisible()) {
+            if (pathSize == path.length) path = Arrays.copyOf(path, pathSize * 2);
+            path[pathSize++] = node;
+            if (!node.isPushEventsUp() || !(node.getParent() instanceof Interactive parent)) break;
+            node = parent;
+        }
 
-        if (eventDispatcher.getParent() instanceof Interactive parent) {
-            dispatch(parent, event);
+        try {
+            EventPropagation.dispatch(event, path, offset, pathSize - offset);
+        } finally {
+            Arrays.fill(path, offset, pathSize, null);
+            pathSize = offset;
         }
     }
 
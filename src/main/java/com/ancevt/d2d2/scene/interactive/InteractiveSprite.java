@@ -19,10 +19,12 @@
 package com.ancevt.d2d2.scene.interactive;
 
 import com.ancevt.d2d2.D2D2;
+import com.ancevt.d2d2.event.CommonEvent;
 import com.ancevt.d2d2.event.NodeEvent;
 import com.ancevt.d2d2.exception.InteractiveException;
 import com.ancevt.d2d2.scene.BasicSprite;
 import com.ancevt.d2d2.scene.shape.FreeShape;
+import com.ancevt.d2d2.scene.texture.AlphaMaskCache;
 import com.ancevt.d2d2.scene.texture.TextureRegion;
 
 public class InteractiveSprite extends BasicSprite implements Interactive {
@@ -35,24 +37,23 @@ public class InteractiveSprite extends BasicSprite implements Interactive {
     private boolean hovering;
     private boolean disposed;
     private boolean pushEventUp;
+    private boolean alphaHitTestEnabled;
 
     private FreeShape freeShape;
 
     public InteractiveSprite() {
-        interactiveArea = new InteractiveArea(0, 0, 0, 0);
+        interactiveArea = new InteractiveArea(this, 0, 0, 0, 0);
         enabled = true;
         pushEventUp = true;
         InteractiveManager.getInstance().registerInteractive(this);
-        setDefaultName();
     }
 
     private InteractiveSprite(TextureRegion textureRegion) {
         setTextureRegion(textureRegion);
-        interactiveArea = new InteractiveArea(0, 0, textureRegion.getWidth(), textureRegion.getHeight());
+        interactiveArea = new InteractiveArea(this, 0, 0, textureRegion.getWidth(), textureRegion.getHeight());
         enabled = true;
         pushEventUp = true;
         InteractiveManager.getInstance().registerInteractive(this);
-        setDefaultName();
     }
 
     private InteractiveSprite(String assetPath) {
@@ -73,13 +74,39 @@ public class InteractiveSprite extends BasicSprite implements Interactive {
 
     @Override
     public void setInteractiveFreeShape(FreeShape freeShape) {
+        if (this.freeShape != null) {
+            this.freeShape.removeEventListener(this, CommonEvent.Change.class);
+        }
         this.freeShape = freeShape;
+        if (freeShape != null) {
+            freeShape.addEventListener(this, CommonEvent.Change.class, e -> InteractiveManager.hitAreaChanged(this));
+        }
+        InteractiveManager.hitAreaChanged(this);
     }
 
     public FreeShape getInteractiveFreeShape() {
         return freeShape;
     }
 
+    @Override
+    public void setAlphaHitTestEnabled(boolean alphaHitTestEnabled) {
+        this.alphaHitTestEnabled = alphaHitTestEnabled;
+        TextureRegion textureRegion = getTextureRegion();
+        if (alphaHitTestEnabled && textureRegion != null) {
+            AlphaMaskCache.request(textureRegion.getTexture());
+        }
+    }
+
+    @Override
+    public boolean isAlphaHitTestEnabled() {
+        return alphaHitTestEnabled;
+    }
+
+    @Override
+    public TextureRegion getHitTextureRegion() {
+        return getTextureRegion();
+    }
+
     @Override
     public void setPushEventsUp(boolean pushEventUp) {
         this.pushEventUp = pushEventUp;
@@ -90,10 +117,6 @@ public class InteractiveSprite extends BasicSprite implements Interactive {
         return pushEventUp;
     }
 
-    private void setDefaultName() {
-        setName("_" + getClass().getSimpleName() + getNodeId());
-    }
-
     @Override
     public void setX(float value) {
         interactiveArea.setUp(
@@ -118,7 +118,7 @@ public class BorderedRectangleShape extends BasicGroup {
     }
 
     private void rebuildBorders() {
-        lineBatch.getLines().clear();
+        lineBatch.clear();
         lineBatch.moveTo(0, 0);
         lineBatch.lineTo(getWidth(), 0);
         lineBatch.lineTo(getWidth(), getHeight());
@@ -18,11 +18,14 @@
 
 package com.ancevt.d2d2.scene.shape;
 
+import com.ancevt.d2d2.event.CommonEvent;
 import com.ancevt.d2d2.scene.AbstractNode;
 import com.ancevt.d2d2.scene.Color;
 import com.ancevt.d2d2.scene.Colored;
+import com.ancevt.d2d2.scene.Rect;
 import com.ancevt.d2d2.scene.Textured;
 import com.ancevt.d2d2.scene.texture.TextureRegion;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -68,6 +71,9 @@ public class FreeShape extends AbstractNode implements Shape, Colored, Textured
     @Getter
     private List<TriangleInfo> triangleInfos = new ArrayList<>();
 
+    @Getter(AccessLevel.NONE)
+    private PolygonEdgeTable edgeTable;
+
     @Override
     public void setTextureUVRepeat(float uRepeat, float vRepeat) {
         this.textureURepeat = uRepeat;
@@ -81,51 +87,28 @@ public class FreeShape extends AbstractNode implements Shape, Colored, Textured
         textureScaleY = scaleY;
     }
 
+    /**
+     * Tests a point in this shape's coordinate space against the polygon, even-odd rule. The edge
+     * table behind the test is rebuilt after vertices are added or {@link #commit()} is called;
+     * editing the vertex list or a {@link Vertex} directly must be followed by {@code commit()}.
+     */
     public boolean isPointInsideFreeShape(float x, float y) {
-        int intersections = 0;
-        int vertexCount = vertices.size();
-
-        for (int i = 0; i < vertexCount; i++) {
-            Vertex v1 = vertices.get(i);
-            Vertex v2 = vertices.get((i + 1) % vertexCount);
-
-            if (isIntersecting(v1, v2, x, y)) {
-                intersections++;
-            }
-        }
-
-        return (intersections % 2) == 1;
+        PolygonEdgeTable table = edgeTable;
+        if (table == null) table = edgeTable = new PolygonEdgeTable(vertices);
+        return table.contains(x, y);
     }
 
-    private static boolean isIntersecting(Vertex v1, Vertex v2, float x, float y) {
-        if (v1.y > v2.y) {
-            Vertex temp = v1;
-            v1 = v2;
-            v2 = temp;
-        }
-
-        if (y == v1.y || y == v2.y) {
-            y += 0.0001f;
-        }
-
-        if (y > v2.y || y < v1.y || x > Math.max(v1.x, v2.x)) {
-            return false;
-        }
-
-        if (x < Math.min(v1.x, v2.x)) {
-            return true;
-        }
-
-        double red = (double) (v2.x - v1.x) * (y - v1.y) / (v2.y - v1.y) + v1.x;
-        return x < red;
-    }
-
-
+    /**
+     * Adds a vertex. Users of the outline, such as interactives hit-tested against it, are only
+     * notified by {@link #commit()}, so a batch of vertices costs them a single refresh.
+     */
     public Vertex addVertex(float x, float y) {
         this.currentX = x;
         this.currentY = y;
         var result = new Vertex(x, y);
         vertices.add(result);
+        edgeTable = null;
+        invalidateBounds();
         return result;
     }
 
@@ -150,6 +133,29 @@ public class FreeShape extends AbstractNode implements Shape, Colored, Textured
 
     }
 
+    @Override
+    protected void computeBounds(Rect out) {
+        if (vertices.isEmpty()) {
+            out.setEmpty();
+            return;
+        }
+
+        float minX = Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+
+        for (int i = 0; i < vertices.size(); i++) {
+            Vertex v = vertices.get(i);
+            minX = Math.min(minX, v.x);
+            minY = Math.min(minY, v.y);
+            maxX = Math.max(maxX, v.x);
+            maxY = Math.max(maxY, v.y);
+        }
+
+        out.setBounds(minX, minY, maxX, maxY);
+    }
+
     @Override
     public String toString() {
         return getClass().getSimpleName() + "{" + vertices.size() + "}";
@@ -178,8 +184,15 @@ public class FreeShape extends AbstractNode implements Shape, Colored, Textured
         return copy;
     }
 
+    /**
+     * Rebuilds the triangulation after the vertices changed and dispatches
+     * {@link CommonEvent.Change}.
+     */
     public void commit() {
         triangleInfos.clear();
+        edgeTable = null;
+        invalidateBounds();
+        dispatchEvent(CommonEvent.Change.create());
 
         List<Double> coords = new ArrayList<>();
         for (Vertex vertex : vertices) {
@@ -20,12 +20,13 @@ package com.ancevt.d2d2.scene.shape;
 
 import com.ancevt.d2d2.scene.AbstractNode;
 import com.ancevt.d2d2.scene.Color;
+import com.ancevt.d2d2.scene.Rect;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
-import lombok.Setter;
 import lombok.ToString;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @ToString
@@ -33,8 +34,8 @@ public class LineBatch extends AbstractNode implements Shape {
 
     private Color color = Color.WHITE;
 
-    @Getter
     private final List<Line> lines = new ArrayList<>();
+    private final List<Line> linesView = Collections.unmodifiableList(lines);
 
     @Getter
     private float currentX = 0f;
@@ -48,22 +49,54 @@ public class LineBatch extends AbstractNode implements Shape {
     private float startX = 0f;
     private float startY = 0f;
 
-    @Setter
     @Getter
     private float lineWidth = 1f;
 
     @Getter
-    @Setter
     private int stippleFactor = 1;
 
     @Getter
-    @Setter
     private short stipple = 0;
 
     private Line currentLine = null;
 
     public LineBatch() {
-        setName("_" + getClass().getSimpleName() + getNodeId());
+    }
+
+    /**
+     * Read-only view of the lines; use {@link #lineTo(float, float)} and {@link #clear()} to
+     * change them.
+     */
+    public List<Line> getLines() {
+        return linesView;
+    }
+
+    /**
+     * Removes all lines and starts a new path.
+     */
+    public void clear() {
+        lines.clear();
+        currentLine = null;
+        started = false;
+        currentX = 0f;
+        currentY = 0f;
+        invalidateBounds();
+    }
+
+    public void setLineWidth(float lineWidth) {
+        if (this.lineWidth == lineWidth) return;
+        this.lineWidth = lineWidth;
+        invalidateBounds();
+    }
+
+    public void setStippleFactor(int stippleFactor) {
+        this.stippleFactor = stippleFactor;
+        invalidateContent();
+    }
+
+    public void setStipple(short stipple) {
+        this.stipple = stipple;
+        invalidateContent();
     }
 
     public void moveTo(float x, float y) {
@@ -93,6 +126,7 @@ public class LineBatch extends AbstractNode implements Shape {
 
         currentLine = new Line(vertexA, vertexB);
         lines.add(currentLine);
+        invalidateBounds();
 
         return currentLine;
     }
@@ -109,6 +143,7 @@ public class LineBatch extends AbstractNode implements Shape {
     @Override
     public void setColor(Color color) {
         this.color = color;
+        invalidateContent();
     }
 
     @Override
@@ -116,6 +151,30 @@ public class LineBatch extends AbstractNode implements Shape {
         return color;
     }
 
+    @Override
+    protected void computeBounds(Rect out) {
+        if (lines.isEmpty()) {
+            out.setEmpty();
+            return;
+        }
+
+        float minX = Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            minX = Math.min(minX, Math.min(line.vertexA.x, line.vertexB.x));
+            minY = Math.min(minY, Math.min(line.vertexA.y, line.vertexB.y));
+            maxX = Math.max(maxX, Math.max(line.vertexA.x, line.vertexB.x));
+            maxY = Math.max(maxY, Math.max(line.vertexA.y, line.vertexB.y));
+        }
+
+        float halfLineWidth = lineWidth / 2f;
+        out.setBounds(minX - halfLineWidth, minY - halfLineWidth, maxX + halfLineWidth, maxY + halfLineWidth);
+    }
+
     @RequiredArgsConstructor
     @Getter
     public static class Line {
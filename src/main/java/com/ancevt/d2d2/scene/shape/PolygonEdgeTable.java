@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) 2025 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ancevt.d2d2.scene.shape;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Even-odd point-in-polygon test over a snapshot of a vertex list. The polygon's edges are
+ * stored in flat arrays and sorted into horizontal bands, so a query rejects points outside the
+ * bounding box at once and otherwise only looks at the edges crossing the point's band.
+ */
+final class PolygonEdgeTable {
+
+    static final int MAX_BANDS = 256;
+
+    // Same tolerance the ray cast has always used for rays passing through a vertex
+    private static final float VERTEX_NUDGE = 0.0001f;
+
+    private final int vertexCount;
+    private final float minX;
+    private final float minY;
+    private final float maxX;
+    private final float maxY;
+
+    // Edges as (x1, y1, x2, y2) with y1 <= y2
+    private final float[] edges;
+    private final int bandCount;
+    private final float bandsPerUnit;
+    private final int[] bandStart;
+    private final int[] bandEdges;
+
+    PolygonEdgeTable(List<Vertex> vertices) {
+        int n = vertices.size();
+        vertexCount = n;
+        edges = new float[n * 4];
+
+        float x0 = Float.MAX_VALUE, y0 = Float.MAX_VALUE;
+        float x1 = -Float.MAX_VALUE, y1 = -Float.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            Vertex a = vertices.get(i);
+            Vertex b = vertices.get(i + 1 == n ? 0 : i + 1);
+            boolean flip = a.y > b.y;
+            int e = i * 4;
+            edges[e] = flip ? b.x : a.x;
+            edges[e + 1] = flip ? b.y : a.y;
+            edges[e + 2] = flip ? a.x : b.x;
+            edges[e + 3] = flip ? a.y : b.y;
+
+            x0 = Math.min(x0, a.x);
+            y0 = Math.min(y0, a.y);
+            x1 = Math.max(x1, a.x);
+            y1 = Math.max(y1, a.y);
+        }
+        minX = x0;
+        minY = y0;
+        maxX = x1;
+        maxY = y1;
+
+        float height = maxY - minY;
+        bandCount = n == 0 || !(height > 0f) ? 1 : Math.max(1, Math.min(MAX_BANDS, n / 2));
+        bandsPerUnit = height > 0f ? bandCount / height : 0f;
+
+        // Counting pass, then fill: every edge goes to each band its y range, widened by the
+        // nudge, overlaps
+        bandStart = new int[bandCount + 1];
+        for (int i = 0; i < n; i++) {
+            int from = band(edges[i * 4 + 1] - VERTEX_NUDGE);
+            int to = band(edges[i * 4 + 3]);
+            for (int b = from; b <= to; b++) bandStart[b + 1]++;
+        }
+        for (int b = 0; b < bandCount; b++) bandStart[b + 1] += bandStart[b];
+
+        bandEdges = new int[bandStart[bandCount]];
+        int[] fill = Arrays.copyOf(bandStart, bandCount);
+        for (int i = 0; i < n; i++) {
+            int from = band(edges[i * 4 + 1] - VERTEX_NUDGE);
+            int to = band(edges[i * 4 + 3]);
+            for (int b = from; b <= to; b++) bandEdges[fill[b]++] = i;
+        }
+    }
+
+    boolean contains(float x, float y) {
+        if (vertexCount == 0 || x < minX || x > maxX || y < minY || y > maxY) return false;
+
+        int band = band(y);
+        int intersections = 0;
+        for (int i = bandStart[band], end = bandStart[band + 1]; i < end; i++) {
+            int e = bandEdges[i] * 4;
+            if (crosses(edges[e], edges[e + 1], edges[e + 2], edges[e + 3], x, y)) intersections++;
+        }
+        return (intersections & 1) == 1;
+    }
+
+    private int band(float y) {
+        int band = (int) ((y - minY) * bandsPerUnit);
+        return band < 0 ? 0 : Math.min(band, bandCount - 1);
+    }
+
+    /**
+     * Whether a ray from the point towards +x crosses the edge; the edge's end points are
+     * ordered by y.
+     */
+    private static boolean crosses(float x1, float y1, float x2, float y2, float x, float y) {
+        if (y == y1 || y == y2) {
+            y += VERTEX_NUDGE;
+        }
+
+        if (y > y2 || y < y1 || x > Math.max(x1, x2)) {
+            return false;
+        }
+
+        if (x < Math.min(x1, x2)) {
+            return true;
+        }
+
+        double red = (double) (x2 - x1) * (y - y1) / (y2 - y1) + x1;
+        return x < red;
+    }
+}
@@ -74,18 +74,21 @@ public class RectangleShape extends AbstractNode implements Shape, Resizable, Co
     public void setSize(float width, float height) {
         this.width = width;
         this.height = height;
+        invalidateBounds();
         dispatchEvent(CommonEvent.Resize.create(width, height));
     }
 
     @Override
     public void setWidth(float value) {
         this.width = value;
+        invalidateBounds();
         dispatchEvent(CommonEvent.Resize.create(width, height));
     }
 
     @Override
     public void setHeight(float value) {
         this.height = value;
+        invalidateBounds();
         dispatchEvent(CommonEvent.Resize.create(width, height));
     }
 
@@ -102,6 +105,7 @@ public class RectangleShape extends AbstractNode implements Shape, Resizable, Co
     @Override
     public void setColor(Color color) {
         this.color = color;
+        invalidateContent();
     }
 
     @Override
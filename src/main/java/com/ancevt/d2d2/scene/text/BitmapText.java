@@ -81,7 +81,6 @@ public class BitmapText extends AbstractNode implements Colored, Resizable {
         setWidth(width);
         setHeight(height);
         setText(text);
-        setName("_" + getClass().getSimpleName() + getNodeId());
     }
 
     private BitmapText(final BitmapFont bitmapFont, float boundWidth, float boundHeight) {
@@ -157,6 +156,8 @@ public class BitmapText extends AbstractNode implements Colored, Resizable {
     }
 
     private void updateCachedSprite() {
+        invalidateBounds();
+
         if (sprite != null && sprite.getTextureRegion() != null) {
             D2D2.getTextureManager().unloadTexture(sprite.getTextureRegion().getTexture());
         }
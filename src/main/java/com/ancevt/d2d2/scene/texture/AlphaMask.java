@@ -0,0 +1,73 @@
+/**
+ * Copyright (C) 2025 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ancevt.d2d2.scene.texture;
+
+import lombok.Getter;
+
+/**
+ * One bit per texel telling whether the texel is opaque enough to be hit, packed row by row into
+ * longs.
+ */
+public final class AlphaMask {
+
+    @Getter
+    private final int width;
+    @Getter
+    private final int height;
+    private final int wordsPerRow;
+    private final long[] bits;
+
+    private AlphaMask(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.bits = new long[wordsPerRow * height];
+    }
+
+    /**
+     * Builds a mask from 8-bit alpha values stored row by row, top row first. Texels with an
+     * alpha of at least {@code threshold} are opaque.
+     */
+    public static AlphaMask build(byte[] alpha, int width, int height, int threshold) {
+        if (alpha.length < width * height) {
+            throw new IllegalArgumentException("Expected " + width * height + " alpha values, got " + alpha.length);
+        }
+
+        AlphaMask mask = new AlphaMask(width, height);
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            int rowWord = y * mask.wordsPerRow;
+            for (int x = 0; x < width; x++) {
+                if ((alpha[row + x] & 0xFF) >= threshold) {
+                    mask.bits[rowWord + (x >>> 6)] |= 1L << (x & 63);
+                }
+            }
+        }
+        return mask;
+    }
+
+    public boolean isOpaque(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) return false;
+        return (bits[y * wordsPerRow + (x >>> 6)] & (1L << (x & 63))) != 0;
+    }
+
+    public long getSizeInBytes() {
+        return (long) bits.length * Long.BYTES;
+    }
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright (C) 2025 the original author or authors.
+ * See the notice.md file distributed with this work for additional
+ * information regarding copyright ownership.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ancevt.d2d2.scene.texture;
+
+import com.ancevt.d2d2.D2D2;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Alpha masks of textures, keyed by texture id, for pixel-accurate hit testing.
+ * <p>
+ * A mask is built on first request on a background thread from the pixels returned by
+ * {@link TextureManager#getAlphaChannel(Texture)}; until it is ready {@link #get(Texture)}
+ * returns {@code null}. Finished masks are picked up by the next call on the render thread, and
+ * the least recently used masks are dropped once their total size exceeds the memory budget.
+ * Textures the texture manager cannot read, or whose mask alone exceeds the budget, are
+ * remembered and never get a mask.
+ * <p>
+ * Apart from the background build, all methods must be called on the render thread.
+ */
+public final class AlphaMaskCache {
+
+    public static final long DEFAULT_BUDGET_BYTES = 16L * 1024 * 1024;
+    public static final int DEFAULT_ALPHA_THRESHOLD = 1;
+
+    private static final Map<Integer, AlphaMask> masks = new LinkedHashMap<>(16, 0.75f, true);
+    // Texture id to the token of its build in flight; results with any other token are stale
+    private static final Map<Integer, Integer> pendingBuilds = new HashMap<>();
+    private static final Set<Integer> unavailable = new HashSet<>();
+    private static final Queue<Result> completed = new ConcurrentLinkedQueue<>();
+
+    private static ExecutorService builder;
+    private static long budgetBytes = DEFAULT_BUDGET_BYTES;
+    private static long sizeBytes;
+    private static int alphaThreshold = DEFAULT_ALPHA_THRESHOLD;
+    private static int nextBuildToken;
+
+    private AlphaMaskCache() {
+    }
+
+    /**
+     * Returns the texture's mask, or {@code null} if it is not ready yet or cannot be built. The
+     * first call for a texture starts building its mask.
+     */
+    public static AlphaMask get(Texture texture) {
+        collectCompleted();
+
+        AlphaMask mask = masks.get(texture.getId());
+        if (mask == null) request(texture);
+        return mask;
+    }
+
+    /**
+     * Starts building the texture's mask unless it is cached, being built or known to be
+     * unavailable.
+     */
+    public static void request(Texture texture) {
+        Integer id = texture.getId();
+        if (masks.containsKey(id) || pendingBuilds.containsKey(id) || unavailable.contains(id)) return;
+
+        int buildToken = nextBuildToken++;
+        pendingBuilds.put(id, buildToken);
+        TextureManager textureManager = D2D2.getTextureManager();
+        int threshold = alphaThreshold;
+
+        builder().execute(() -> {
+            AlphaMask mask = null;
+            try {
+                byte[] alpha = textureManager.getAlphaChannel(texture);
+                if (alpha != null) {
+                    mask = AlphaMask.build(alpha, texture.getWidth(), texture.getHeight(), threshold);
+                }
+            } catch (RuntimeException e) {
+                if (D2D2.log != null) D2D2.log.error(AlphaMaskCache.class, "Can't build alpha mask of " + texture, e);
+            }
+            completed.add(new Result(id, buildToken, mask));
+        });
+    }
+
+    /**
+     * Drops the texture's mask, e.g. because the texture was unloaded and its id may be reused.
+     */
+    public static void invalidate(Texture texture) {
+        Integer id = texture.getId();
+        AlphaMask mask = masks.remove(id);
+        if (mask != null) sizeBytes -= mask.getSizeInBytes();
+        unavailable.remove(id);
+        // A build in flight would complete with stale pixels
+        pendingBuilds.remove(id);
+    }
+
+    public static void clear() {
+        masks.clear();
+        pendingBuilds.clear();
+        unavailable.clear();
+        completed.clear();
+        sizeBytes = 0;
+    }
+
+    public static void setBudgetBytes(long budgetBytes) {
+        if (budgetBytes < 0) throw new IllegalArgumentException("Budget must not be negative: " + budgetBytes);
+        AlphaMaskCache.budgetBytes = budgetBytes;
+        evict();
+    }
+
+    public static long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    /**
+     * Total size of the cached masks.
+     */
+    public static long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    /**
+     * Sets the minimum alpha, 0 to 255, of an opaque texel. Changing it drops all masks.
+     */
+    public static void setAlphaThreshold(int alphaThreshold) {
+        if (alphaThreshold < 0 || alphaThreshold > 255) {
+            throw new IllegalArgumentException("Alpha threshold out of range: " + alphaThreshold);
+        }
+        if (AlphaMaskCache.alphaThreshold == alphaThreshold) return;
+        AlphaMaskCache.alphaThreshold = alphaThreshold;
+        clear();
+    }
+
+    public static int getAlphaThreshold() {
+        return alphaThreshold;
+    }
+
+    private static void collectCompleted() {
+        Result result;
+        while ((result = completed.poll()) != null) {
+            Integer buildToken = pendingBuilds.get(result.textureId);
+            if (buildToken == null || buildToken != result.buildToken) continue;
+            pendingBuilds.remove(result.textureId);
+
+            if (result.mask == null || result.mask.getSizeInBytes() > budgetBytes) {
+                unavailable.add(result.textureId);
+                continue;
+            }
+
+            masks.put(result.textureId, result.mask);
+            sizeBytes += result.mask.getSizeInBytes();
+            evict();
+        }
+    }
+
+    private static void evict() {
+        Iterator<AlphaMask> it = masks.values().iterator();
+        while (sizeBytes > budgetBytes && it.hasNext()) {
+            sizeBytes -= it.next().getSizeInBytes();
+            it.remove();
+        }
+    }
+
+    private static ExecutorService builder() {
+        if (builder == null) {
+            builder = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "AlphaMaskCache-Builder");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return builder;
+    }
+
+    private record Result(Integer textureId, int buildToken, AlphaMask mask) {
+    }
+}
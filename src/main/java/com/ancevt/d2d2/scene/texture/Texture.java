@@ -193,6 +193,7 @@ public class Texture implements Disposable {
 
     @Override
     public void dispose() {
+        AlphaMaskCache.invalidate(this);
         D2D2.getTextureManager().unloadTexture(this);
     }
 
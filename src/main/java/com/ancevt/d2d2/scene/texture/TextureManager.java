@@ -49,4 +49,13 @@ public interface TextureManager {
     Map<String, TextureRegion> getTextureRegionMap();
 
     void loadTextureDataInfo(String assetMetaFile);
+
+    /**
+     * Returns the alpha of every texel as {@code width * height} bytes, row by row from the top,
+     * or {@code null} if the pixels cannot be read. Called from a background thread by
+     * {@link AlphaMaskCache}.
+     */
+    default byte[] getAlphaChannel(Texture texture) {
+        return null;
+    }
 }
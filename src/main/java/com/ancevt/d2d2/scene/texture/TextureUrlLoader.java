@@ -27,9 +27,15 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 public class TextureUrlLoader extends EventDispatcherImpl {
 
+    // How long a result waits for room in the stage's posted task queue before it is dropped
+    private static final int POST_ATTEMPTS = 50;
+    private static final long POST_RETRY_DELAY_MILLIS = 20;
+
     private String url;
     private Texture lastLoadedTexture;
 
@@ -57,15 +63,36 @@ public class TextureUrlLoader extends EventDispatcherImpl {
                 .uri(URI.create(getUrl()))
                 .build();
 
+        // The response arrives on an HTTP client thread; the texture is created on the render thread
         client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
                 .thenApply(HttpResponse::body)
-                .thenApply(this::createTexture);
+                .whenComplete((bytes, throwable) -> postToRenderThread(
+                        throwable != null
+                                ? () -> dispatchEvent(TextureLoaderEvent.Error.create(throwable))
+                                : () -> createTexture(bytes),
+                        POST_ATTEMPTS
+                ));
+    }
+
+    private void postToRenderThread(Runnable task, int attempts) {
+        if (D2D2.getStage().post(task)) return;
+
+        if (attempts > 1) {
+            CompletableFuture.delayedExecutor(POST_RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS)
+                    .execute(() -> postToRenderThread(task, attempts - 1));
+        } else if (D2D2.log != null) {
+            D2D2.log.error(TextureUrlLoader.class, "Posted task queue is full, dropped the result of loading " + url);
+        }
     }
 
-    private byte[] createTexture(byte[] bytes) {
-        this.lastLoadedTexture = D2D2.getTextureManager().loadTexture(new ByteArrayInputStream(bytes));
+    private void createTexture(byte[] bytes) {
+        try {
+            this.lastLoadedTexture = D2D2.getTextureManager().loadTexture(new ByteArrayInputStream(bytes));
+        } catch (RuntimeException e) {
+            dispatchEvent(TextureLoaderEvent.Error.create(e));
+            return;
+        }
         dispatchEvent(TextureLoaderEvent.LoadComplete.create(lastLoadedTexture, bytes));
-        return bytes;
     }
 
     public void setUrl(String url) {
@@ -24,12 +24,16 @@ import lombok.Setter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 import java.util.function.Predicate;
 
 public class Timer {
 
     private static final List<Timer> timers = new ArrayList<>();
     private static final List<Timer> timersToRemove = new ArrayList<>();
+    private static final LongSupplier SYSTEM_TIME = System::currentTimeMillis;
+
+    private static LongSupplier timeSource = SYSTEM_TIME;
 
     @Getter
     private final Consumer<Timer> func;
@@ -41,7 +45,7 @@ public class Timer {
     @Getter
     private boolean loop;
 
-    private long startTime = System.currentTimeMillis();
+    private long startTime = currentTimeMillis();
 
     private boolean alive;
 
@@ -52,7 +56,7 @@ public class Timer {
 
     public void start() {
         alive = true;
-        startTime = System.currentTimeMillis();
+        startTime = currentTimeMillis();
         synchronized (timers) {
             if (!timers.contains(this)) {
                 timers.add(this);
@@ -80,6 +84,22 @@ public class Timer {
         return timers.contains(this);
     }
 
+    /**
+     * Current time in milliseconds as seen by timers; the system clock unless replaced with
+     * {@link #setTimeSource(LongSupplier)}.
+     */
+    public static long currentTimeMillis() {
+        return timeSource.getAsLong();
+    }
+
+    /**
+     * Replaces the clock that drives timers, e.g. to replay recorded input deterministically.
+     * {@code null} restores the system clock.
+     */
+    public static void setTimeSource(LongSupplier timeSource) {
+        Timer.timeSource = timeSource != null ? timeSource : SYSTEM_TIME;
+    }
+
     public static Timer setInterval(long delay, Consumer<Timer> func) {
         Timer timer = new Timer(delay, func);
         timer.setLoop(true);
@@ -102,7 +122,7 @@ public class Timer {
 
     public static void processTimers() {
         synchronized (timers) {
-            long currentTime = System.currentTimeMillis();
+            long currentTime = currentTimeMillis();
             for (Timer timer : new ArrayList<>(timers)) { // копия на случай stop() внутри func
                 if (currentTime - timer.startTime >= timer.delay) {
                     if (timer.alive) {
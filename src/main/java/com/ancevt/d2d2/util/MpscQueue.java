@@ -0,0 +1,93 @@
+package com.ancevt.d2d2.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producer threads and a single consumer thread.
+ * <p>
+ * Producers claim a slot with a CAS on the tail and publish the element through the slot's
+ * sequence number; {@link #offer(Object)} never blocks and simply fails when the queue is full.
+ * Only one thread may call {@link #poll()} at a time.
+ */
+public final class MpscQueue<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    /**
+     * @param capacity maximum number of queued elements, rounded up to a power of two
+     */
+    public MpscQueue(int capacity) {
+        if (capacity < 2) throw new IllegalArgumentException("Capacity must be at least 2: " + capacity);
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        mask = size - 1;
+        elements = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds the element if there is room. Safe to call from any thread.
+     *
+     * @return {@code false} if the queue is full
+     */
+    public boolean offer(E element) {
+        if (element == null) throw new NullPointerException("element");
+
+        while (true) {
+            long t = tail.get();
+            int index = (int) (t & mask);
+            long difference = sequences.get(index) - t;
+
+            if (difference == 0) {
+                if (tail.compareAndSet(t, t + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.set(index, t + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+            // Otherwise another producer claimed the slot first: retry with the new tail
+        }
+    }
+
+    /**
+     * Removes the oldest element, or returns {@code null} if the queue is empty or the oldest
+     * element is still being published. Consumer thread only.
+     */
+    public E poll() {
+        long h = head;
+        int index = (int) (h & mask);
+        if (sequences.get(index) != h + 1) return null;
+
+        E element = elements.get(index);
+        elements.lazySet(index, null);
+        sequences.set(index, h + mask + 1);
+        head = h + 1;
+        return element;
+    }
+
+    /**
+     * Approximate number of queued elements; exact only when no producer is active.
+     */
+    public int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}